@@ -0,0 +1,105 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop HTTP load generator used to compare the platform-thread and virtual-thread (vthreads) modes.
+// Run with the JDK source launcher, no build needed:
+//   java load-test/LoadBenchmark.java [baseUrl] [concurrency] [durationSeconds] [path...]
+// Each of `concurrency` clients sends requests back to back (cycling through the paths) for the duration,
+// after a warm-up of a quarter of the duration; throughput and latency percentiles are printed at the end.
+public class LoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        List<String> paths = args.length > 3
+                ? Arrays.asList(args).subList(3, args.length)
+                : List.of("/api/users?limit=50", "/api/users/search-by-address?state=TX&limit=50", "/api/users/search?q=smith");
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<HttpRequest> requests = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build());
+        }
+
+        System.out.printf("Warming up %s with %d clients for %ds...%n", baseUrl, concurrency, Math.max(1, durationSeconds / 4));
+        run(client, requests, concurrency, Math.max(1, durationSeconds / 4));
+        System.out.printf("Measuring for %ds...%n", durationSeconds);
+        Result result = run(client, requests, concurrency, durationSeconds);
+
+        long[] latencies = result.latenciesNanos();
+        Arrays.sort(latencies);
+        System.out.printf("requests=%d throughput=%.1f req/s%n", latencies.length, latencies.length / (double) durationSeconds);
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                percentile(latencies, 99.9), percentile(latencies, 100));
+        System.out.println("status codes: " + result.statusCounts());
+    }
+
+    private static Result run(HttpClient client, List<HttpRequest> requests, int concurrency, int durationSeconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        List<Future<Result>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                int offset = w;
+                workers.add(executor.submit(() -> worker(client, requests, offset, deadline)));
+            }
+        }
+        long[] all = new long[0];
+        Map<Integer, Integer> statusCounts = new TreeMap<>();
+        for (Future<Result> worker : workers) {
+            Result result = worker.get();
+            long[] merged = Arrays.copyOf(all, all.length + result.latenciesNanos().length);
+            System.arraycopy(result.latenciesNanos(), 0, merged, all.length, result.latenciesNanos().length);
+            all = merged;
+            result.statusCounts().forEach((status, count) -> statusCounts.merge(status, count, Integer::sum));
+        }
+        return new Result(all, statusCounts);
+    }
+
+    private static Result worker(HttpClient client, List<HttpRequest> requests, int offset, long deadline) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        Map<Integer, Integer> statusCounts = new TreeMap<>();
+        for (int i = offset; System.nanoTime() < deadline; i++) {
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(requests.get(i % requests.size()), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1; // connection error or timeout
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+            statusCounts.merge(status, 1, Integer::sum);
+        }
+        return new Result(Arrays.copyOf(latencies, count), statusCounts);
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+    }
+
+    private record Result(long[] latenciesNanos, Map<Integer, Integer> statusCounts) {
+    }
+}
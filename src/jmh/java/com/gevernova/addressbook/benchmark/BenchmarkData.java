@@ -0,0 +1,50 @@
+package com.gevernova.addressbook.benchmark;
+
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic fixtures shared by the benchmarks
+final class BenchmarkData {
+
+	private BenchmarkData() {
+	}
+
+	static User user(long id, int addressCount) {
+		User user = new User();
+		user.setId(id);
+		user.setFirstName("First" + id);
+		user.setLastName("Last" + id);
+		user.setPhoneNumber("5550000000");
+		user.setEmail("user" + id + "@example.com");
+		user.setPassword("secret");
+		for (int i = 0; i < addressCount; i++) {
+			Address address = new Address();
+			address.setId(id * 1000 + i);
+			address.setStreet(i + " Main Street");
+			address.setAddressLine2("Apt " + i);
+			address.setCity("City" + (i % 20));
+			address.setState(i % 2 == 0 ? "TX" : "CA");
+			address.setZipCode("7500" + (i % 10));
+			address.setCountry("USA");
+			address.setTags(new ArrayList<>(List.of("home", "tag" + i)));
+			address.setUser(user);
+			user.getAddresses().add(address);
+		}
+		user.syncPrimaryCity();
+		return user;
+	}
+
+	static UserRequestDTO userRequest(long id, int addressCount) {
+		List<AddressRequestDTO> addresses = new ArrayList<>(addressCount);
+		for (int i = 0; i < addressCount; i++) {
+			addresses.add(new AddressRequestDTO(null, i + " Main Street", "Apt " + i, "City" + (i % 20),
+					i % 2 == 0 ? "TX" : "CA", "7500" + (i % 10), "USA", new ArrayList<>(List.of("home", "tag" + i))));
+		}
+		return new UserRequestDTO("First" + id, "Last" + id, "5550000000", "user" + id + "@example.com", "secret", addresses);
+	}
+}
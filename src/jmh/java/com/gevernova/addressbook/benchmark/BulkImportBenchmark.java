@@ -0,0 +1,105 @@
+package com.gevernova.addressbook.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gevernova.addressbook.AddressBookApplication;
+import com.gevernova.addressbook.dto.BulkImportResultDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.service.UserImportService;
+import com.gevernova.addressbook.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// POST /bulk against one POST per user: both score users inserted per second, so the ratio of the two scores
+// is the speedup of the chunked, JDBC-batched import. The lowest BCrypt strength keeps the hashing (parallel in
+// the import, one at a time otherwise) from hiding the database work.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkImportBenchmark {
+
+	private static final int USERS_PER_INVOCATION = 500;
+	private static final int ADDRESS_COUNT = 2;
+
+	private ConfigurableApplicationContext context;
+	private UserService userService;
+	private UserImportService userImportService;
+	private ObjectMapper objectMapper;
+	private long nextId;
+
+	private List<UserRequestDTO> requests;
+	private byte[] ndjson;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication application = new SpringApplication(AddressBookApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run(
+				"--spring.profiles.active=dev",
+				"--spring.devtools.restart.enabled=false",
+				"--spring.jpa.show-sql=false",
+				"--addressbook.password.bcrypt-strength=4",
+				"--logging.level.root=warn",
+				"--logging.level.com.gevernova=warn");
+		userService = context.getBean(UserService.class);
+		userImportService = context.getBean(UserImportService.class);
+		objectMapper = context.getBean(ObjectMapper.class);
+	}
+
+	// New emails for every invocation: both paths reject a taken one
+	@Setup(Level.Invocation)
+	public void nextUsers() throws JsonProcessingException {
+		requests = new ArrayList<>(USERS_PER_INVOCATION);
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < USERS_PER_INVOCATION; i++) {
+			UserRequestDTO request = BenchmarkData.userRequest(nextId++, ADDRESS_COUNT);
+			requests.add(request);
+			lines.append(objectMapper.writeValueAsString(request)).append('\n');
+		}
+		ndjson = lines.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(USERS_PER_INVOCATION)
+	public BulkImportResultDTO bulkImport() throws IOException {
+		return userImportService.importUsers(new ByteArrayInputStream(ndjson), true);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(USERS_PER_INVOCATION)
+	public void singleCreates(Blackhole blackhole) {
+		for (UserRequestDTO request : requests) {
+			blackhole.consume(userService.createUser(request));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.gevernova.addressbook.benchmark;
+
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CPU and allocation cost (run with -prof gc) of UserMapper for users with 1, 10 and 100 addresses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+	private static final int PAGE_SIZE = 50;
+
+	@Param({"1", "10", "100"})
+	private int addressCount;
+
+	private User user;
+	private UserRequestDTO userRequest;
+	private List<User> page;
+
+	@Setup
+	public void setUp() {
+		user = BenchmarkData.user(1, addressCount);
+		userRequest = BenchmarkData.userRequest(1, addressCount);
+		page = new ArrayList<>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			page.add(BenchmarkData.user(i, addressCount));
+		}
+	}
+
+	@Benchmark
+	public UserResponseDTO userToDto() {
+		return UserMapper.convertToUserDTO(user);
+	}
+
+	@Benchmark
+	public User requestToUser() {
+		return UserMapper.convertToUserEntity(userRequest);
+	}
+
+	// A full page as returned by the list and search endpoints
+	@Benchmark
+	public List<UserResponseDTO> pageToDtos() {
+		return UserMapper.convertToUserDTOs(page);
+	}
+}
@@ -0,0 +1,119 @@
+package com.gevernova.addressbook.benchmark;
+
+import com.gevernova.addressbook.AddressBookApplication;
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.metrics.RequestQueryStats;
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.repository.UserRepository;
+import com.gevernova.addressbook.service.UserService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Read-heavy mix (90% lookups, pages and searches, 10% patches) with the Hibernate second-level and query
+// caches on and off. The "statements" counter is reported next to the throughput: statements/s divided by
+// ops/s is the number of database round-trips per operation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+	private static final int USER_COUNT = 1000;
+	private static final int ADDRESS_COUNT = 3;
+	private static final String[] STATES = {"TX", "CA"};
+
+	@Param({"true", "false"})
+	private boolean secondLevelCache;
+
+	private ConfigurableApplicationContext context;
+	private UserService userService;
+	private List<Long> userIds;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Statements {
+		public long statements;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication application = new SpringApplication(AddressBookApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run(
+				"--spring.profiles.active=dev",
+				"--spring.devtools.restart.enabled=false",
+				"--spring.jpa.show-sql=false",
+				"--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+				"--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+				"--logging.level.root=warn",
+				"--logging.level.com.gevernova=warn");
+		userService = context.getBean(UserService.class);
+
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		List<User> users = new ArrayList<>(USER_COUNT);
+		for (int i = 0; i < USER_COUNT; i++) {
+			User user = BenchmarkData.user(i, ADDRESS_COUNT);
+			user.setId(null);
+			user.getAddresses().forEach(address -> address.setId(null));
+			users.add(user);
+		}
+		userIds = new ArrayList<>(USER_COUNT);
+		for (User user : userRepository.saveAll(users)) {
+			userIds.add(user.getId());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void readHeavyMix(Statements counters, Blackhole blackhole) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		RequestQueryStats.reset();
+		int dice = random.nextInt(100);
+		if (dice < 60) {
+			blackhole.consume(userService.getUserById(randomUserId(random)));
+		} else if (dice < 75) {
+			blackhole.consume(userService.getAllUsers(UserSort.LAST_NAME, null, 20));
+		} else if (dice < 90) {
+			String state = STATES[random.nextInt(STATES.length)];
+			blackhole.consume(userService.findUsersByAddressState(state, MatchMode.EXACT, UserSort.ID, null, 20));
+		} else {
+			UserPatchDTO patch = new UserPatchDTO();
+			patch.setPhoneNumber(String.valueOf(5550000000L + random.nextInt(1_000_000)));
+			blackhole.consume(userService.patchUser(randomUserId(random), patch));
+		}
+		counters.statements += RequestQueryStats.statements();
+	}
+
+	private Long randomUserId(ThreadLocalRandom random) {
+		return userIds.get(random.nextInt(userIds.size()));
+	}
+}
@@ -0,0 +1,70 @@
+package com.gevernova.addressbook.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gevernova.addressbook.dto.ResponseDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the response and request bodies, with an ObjectMapper configured like Spring MVC's
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({"1", "10", "100"})
+	private int addressCount;
+
+	private ObjectMapper objectMapper;
+	private User user;
+	private ResponseDTO response;
+	private byte[] requestJson;
+
+	@Setup
+	public void setUp() throws IOException {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		user = BenchmarkData.user(1, addressCount);
+		response = ResponseDTO.builder()
+				.message("Retrieved user with ID: 1")
+				.data(UserMapper.convertToUserDTO(user))
+				.build();
+		requestJson = objectMapper.writeValueAsBytes(BenchmarkData.userRequest(1, addressCount));
+	}
+
+	@Benchmark
+	public byte[] writeUserResponse() throws IOException {
+		return objectMapper.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public UserRequestDTO readUserRequest() throws IOException {
+		return objectMapper.readValue(requestJson, UserRequestDTO.class);
+	}
+
+	// Entity -> DTO -> JSON, i.e. everything GET /api/users/{id} does after the query
+	@Benchmark
+	public byte[] mapAndWriteUser() throws IOException {
+		return objectMapper.writeValueAsBytes(ResponseDTO.builder()
+				.message("Retrieved user with ID: 1")
+				.data(UserMapper.convertToUserDTO(user))
+				.build());
+	}
+}
@@ -0,0 +1,110 @@
+package com.gevernova.addressbook.benchmark;
+
+import com.gevernova.addressbook.AddressBookApplication;
+import com.gevernova.addressbook.dto.CursorPage;
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.repository.UserRepository;
+import com.gevernova.addressbook.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end service calls (query + mapping, no HTTP) against the embedded H2 database of the dev profile,
+// seeded with USER_COUNT users of 1, 10 or 100 addresses each
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+	private static final int USER_COUNT = 1000;
+
+	@Param({"1", "10", "100"})
+	private int addressCount;
+
+	private ConfigurableApplicationContext context;
+	private UserService userService;
+	private List<Long> userIds;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication application = new SpringApplication(AddressBookApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run(
+				"--spring.profiles.active=dev",
+				"--spring.devtools.restart.enabled=false",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.root=warn",
+				"--logging.level.com.gevernova=warn");
+		userService = context.getBean(UserService.class);
+
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		List<User> users = new ArrayList<>(USER_COUNT);
+		for (int i = 0; i < USER_COUNT; i++) {
+			User user = BenchmarkData.user(i, addressCount);
+			user.setId(null);
+			user.getAddresses().forEach(address -> address.setId(null));
+			users.add(user);
+		}
+		userIds = new ArrayList<>(USER_COUNT);
+		for (User user : userRepository.saveAll(users)) {
+			userIds.add(user.getId());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<UserResponseDTO> getUserById() {
+		return userService.getUserById(randomUserId());
+	}
+
+	@Benchmark
+	public CursorPage<UserResponseDTO> firstPageByLastName() {
+		return userService.getAllUsers(UserSort.LAST_NAME, null, 50);
+	}
+
+	@Benchmark
+	public CursorPage<UserResponseDTO> searchByState() {
+		return userService.findUsersByAddressState("TX", MatchMode.EXACT, UserSort.ID, null, 50);
+	}
+
+	@Benchmark
+	public UserResponseDTO patchPhoneNumber() {
+		UserPatchDTO patch = new UserPatchDTO();
+		patch.setPhoneNumber(String.valueOf(5550000000L + ThreadLocalRandom.current().nextInt(1_000_000)));
+		return userService.patchUser(randomUserId(), patch);
+	}
+
+	private Long randomUserId() {
+		return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+	}
+}
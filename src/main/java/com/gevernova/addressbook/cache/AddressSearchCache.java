@@ -0,0 +1,269 @@
+package com.gevernova.addressbook.cache;
+
+import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.AddressSearchCriteria;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.util.TextNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// User-id pages of the search-by-address queries, keyed by (criteria, sort, cursor, page size). Only ids are
+// cached; the users themselves are loaded fresh, so a write that doesn't move a user in or out of a result
+// (or reorder it) leaves the entries alone. Writes that do are evicted selectively: only entries whose
+// criteria match the old or new location of a written address are dropped. The entries are indexed by criteria,
+// and exact-match criteria also by a term every matching address has, so a write only tests the criteria
+// that could match it instead of every cached entry.
+@Component
+public class AddressSearchCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressSearchCache.class);
+
+    // Normalized keys of one address, as compared by the search queries
+    public record Location(String cityKey, String stateKey, String zipKey) {
+
+        public static Location of(Address address) {
+            return new Location(TextNormalizer.normalize(address.getCity()),
+                    TextNormalizer.normalize(address.getState()),
+                    TextNormalizer.normalize(address.getZipCode()));
+        }
+    }
+
+    // Everything about a user the cached pages depend on: where their addresses are and the sort values
+    public record Footprint(String lastName, String primaryCity, Set<Location> locations) {
+
+        public static Footprint of(User user) {
+            Set<Location> locations = new HashSet<>();
+            for (Address address : user.getAddresses()) {
+                locations.add(Location.of(address));
+            }
+            return new Footprint(user.getLastName(), user.getPrimaryCity(), locations);
+        }
+    }
+
+    // One page of a user search: the user ids in page order and the cursor of the next page
+    public record IdPage(List<Long> userIds, String next) {
+    }
+
+    private record Key(AddressSearchCriteria criteria, UserSort sort, String cursor, int limit) {
+    }
+
+    private enum Field { CITY, STATE, ZIP }
+
+    // A normalized city, state or zip value; see termsOf
+    private record Term(Field field, String value) {
+    }
+
+    private final Cache<Key, IdPage> cache;
+    // Cached keys per criteria; an entry is added after its page is stored and removed with its last key
+    private final Map<AddressSearchCriteria, Set<Key>> keysByCriteria = new ConcurrentHashMap<>();
+    // Exact-match criteria by their terms, and the criteria that have no terms and are tested on every write
+    private final Map<Term, Set<AddressSearchCriteria>> criteriaByTerm = new ConcurrentHashMap<>();
+    private final Set<AddressSearchCriteria> unindexedCriteria = ConcurrentHashMap.newKeySet();
+    // Bumped by every eviction; a page loaded while an eviction happened may be stale and is not stored
+    private final AtomicLong evictions = new AtomicLong();
+    private final Counter evictedEntries;
+    // Locations written within the read-replica lag: a page that could contain them may have been read from a
+    // replica that hasn't seen the write yet, so it is returned but not stored (null without read replicas)
+    private final Cache<Location, Boolean> recentlyWritten;
+
+    public AddressSearchCache(@Value("${addressbook.search-cache.max-entries:10000}") long maxEntries,
+                              @Value("${addressbook.search-cache.ttl:5m}") Duration ttl,
+                              @Value("${addressbook.read-replicas.max-lag:0s}") Duration replicaLag,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                // On the thread that removed the entry, so the index never holds many dead keys
+                .executor(Runnable::run)
+                .removalListener((Key key, IdPage page, RemovalCause cause) -> {
+                    if (key != null && cause != RemovalCause.REPLACED) {
+                        unindex(key);
+                    }
+                })
+                .build();
+        // cache.gets{result=hit|miss}, cache.size, ... tagged cache=users.byAddress
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.byAddress");
+        this.evictedEntries = Counter.builder("addressbook.search-cache.targeted.evictions")
+                .description("Search-result entries dropped because a written address could match them")
+                .register(meterRegistry);
+        this.recentlyWritten = replicaLag.isZero() ? null : Caffeine.newBuilder().expireAfterWrite(replicaLag).build();
+    }
+
+    // Returns the cached page, or loads, stores and returns it
+    public IdPage get(AddressSearchCriteria criteria, UserSort sort, String cursor, int limit, Supplier<IdPage> loader) {
+        Key key = new Key(criteria, sort, cursor, limit);
+        IdPage page = cache.getIfPresent(key);
+        if (page != null) {
+            return page;
+        }
+        long stamp = evictions.get();
+        page = loader.get();
+        if (evictions.get() == stamp
+                && (recentlyWritten == null || !matchesAny(criteria, recentlyWritten.asMap().keySet()))) {
+            cache.put(key, page);
+            index(key);
+            // An eviction that started before the key was indexed may have missed it
+            if (evictions.get() != stamp) {
+                cache.invalidate(key);
+            }
+        }
+        return page;
+    }
+
+    // For an updated user: evicts by the old and new locations, unless nothing the searches see has changed
+    // (e.g. a phone number or email PATCH)
+    public void evictChanged(Footprint before, Footprint after) {
+        if (before.equals(after)) {
+            return;
+        }
+        Set<Location> locations = new HashSet<>(before.locations());
+        locations.addAll(after.locations());
+        evictMatching(locations);
+    }
+
+    // Drops the entries now and, when called inside a transaction, again after it completes: a reader that ran
+    // its query before the commit cannot leave a stale page behind.
+    public void evictMatching(Collection<Location> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        Set<Location> snapshot = Set.copyOf(locations);
+        evict(snapshot);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(snapshot);
+                }
+            });
+        }
+    }
+
+    private void evict(Set<Location> locations) {
+        evictions.incrementAndGet();
+        if (recentlyWritten != null) {
+            locations.forEach(location -> recentlyWritten.put(location, Boolean.TRUE));
+        }
+        Set<AddressSearchCriteria> candidates = new HashSet<>(unindexedCriteria);
+        for (Location location : locations) {
+            addCandidates(candidates, new Term(Field.CITY, location.cityKey()));
+            addCandidates(candidates, new Term(Field.STATE, location.stateKey()));
+            addCandidates(candidates, new Term(Field.ZIP, location.zipKey()));
+        }
+        int evicted = 0;
+        for (AddressSearchCriteria criteria : candidates) {
+            Set<Key> keys = keysByCriteria.get(criteria);
+            if (keys != null && matchesAny(criteria, locations)) {
+                for (Key key : List.copyOf(keys)) {
+                    cache.invalidate(key);
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            evictedEntries.increment(evicted);
+            logger.debug("Evicted {} cached search pages for {} written locations.", evicted, locations.size());
+        }
+    }
+
+    private void addCandidates(Set<AddressSearchCriteria> candidates, Term term) {
+        if (term.value() != null) {
+            Set<AddressSearchCriteria> criteria = criteriaByTerm.get(term);
+            if (criteria != null) {
+                candidates.addAll(criteria);
+            }
+        }
+    }
+
+    // Both run under the criteria's map entry, so a key re-cached while its old entry is being removed stays
+    // indexed: whichever runs last sees the key in the cache
+    private void index(Key key) {
+        keysByCriteria.compute(key.criteria(), (criteria, keys) -> {
+            if (keys == null) {
+                keys = ConcurrentHashMap.newKeySet();
+                List<Term> terms = termsOf(criteria);
+                if (terms.isEmpty()) {
+                    unindexedCriteria.add(criteria);
+                }
+                for (Term term : terms) {
+                    criteriaByTerm.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(criteria);
+                }
+            }
+            keys.add(key);
+            return keys;
+        });
+    }
+
+    private void unindex(Key key) {
+        keysByCriteria.computeIfPresent(key.criteria(), (criteria, keys) -> {
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            if (!keys.isEmpty()) {
+                return keys;
+            }
+            unindexedCriteria.remove(criteria);
+            for (Term term : termsOf(criteria)) {
+                criteriaByTerm.computeIfPresent(term, (t, indexed) -> {
+                    indexed.remove(criteria);
+                    return indexed.isEmpty() ? null : indexed;
+                });
+            }
+            return null;
+        });
+    }
+
+    // Terms at least one of which every address matching the criteria has, or none when that can't be said
+    // (prefix and contains matches, no city/state/zip): an AND needs its zip, else its city, else its state;
+    // an OR of city and state either of them.
+    private static List<Term> termsOf(AddressSearchCriteria criteria) {
+        if (criteria.getMatchMode() != MatchMode.EXACT) {
+            return List.of();
+        }
+        if (criteria.getZipCode() != null) {
+            return List.of(new Term(Field.ZIP, criteria.getZipCode()));
+        }
+        List<Term> terms = new ArrayList<>(2);
+        if (criteria.getCity() != null) {
+            terms.add(new Term(Field.CITY, criteria.getCity()));
+        }
+        if (criteria.getState() != null
+                && (criteria.getOperator() == AddressSearchCriteria.Operator.OR || terms.isEmpty())) {
+            terms.add(new Term(Field.STATE, criteria.getState()));
+        }
+        return terms;
+    }
+
+    private static boolean matchesAny(AddressSearchCriteria criteria, Collection<Location> locations) {
+        for (Location location : locations) {
+            if (criteria.matches(location.cityKey(), location.stateKey(), location.zipKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
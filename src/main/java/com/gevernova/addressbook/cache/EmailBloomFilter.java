@@ -0,0 +1,211 @@
+package com.gevernova.addressbook.cache;
+
+import com.gevernova.addressbook.dto.UserChangeEventDTO;
+import com.gevernova.addressbook.entity.OutboxEvent;
+import com.gevernova.addressbook.repository.UserRepository;
+import com.gevernova.addressbook.service.UserChangeBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+// Bloom filter over the normalized emails: "absent" answers of the lookup by email and of the duplicate check
+// skip the database. It never reports a stored email as absent; about false-positive-rate of the absent
+// emails are reported as "maybe", which then costs one indexed query. Bits can't be removed, so emails of
+// deleted or changed users stay "maybe" until the next rebuild (startup and every rebuild-interval).
+// Local writes add their email before they commit. Writes of other instances come in through the outbox
+// relay (UserChangeBatch), so for up to its poll interval they may still be reported absent here.
+@Component
+public class EmailBloomFilter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double falsePositiveRate;
+    private final long minCapacity;
+    private final Counter absent;
+    private final Counter maybePresent;
+
+    private volatile Bits current; // null until the first build: everything is "maybe"
+    private Bits building; // Guarded by this; receives the adds made while a rebuild scans the table
+    private long failedRelays; // Guarded by this; a rebuild that overlapped a failed relay may lack its emails
+
+    public EmailBloomFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                            @Value("${addressbook.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${addressbook.email-filter.min-capacity:100000}") long minCapacity,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        // Not read-only: a read-only transaction may go to a lagging replica, and a missed email is a false "absent"
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        this.absent = Counter.builder("addressbook.email.filter.checks").tag("result", "absent")
+                .description("Email checks answered by the Bloom filter (absent) or passed on to the database (maybe)")
+                .register(meterRegistry);
+        this.maybePresent = Counter.builder("addressbook.email.filter.checks").tag("result", "maybe")
+                .description("Email checks answered by the Bloom filter (absent) or passed on to the database (maybe)")
+                .register(meterRegistry);
+    }
+
+    // False: no user has this (normalized) email. True: one may have.
+    public boolean mightContain(String emailKey) {
+        Bits bits = current;
+        boolean maybe = bits == null || bits.mightContain(emailKey);
+        (maybe ? maybePresent : absent).increment();
+        return maybe;
+    }
+
+    public synchronized void add(String emailKey) {
+        if (current != null) {
+            current.put(emailKey);
+        }
+        if (building != null) {
+            building.put(emailKey);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer backfilled = transactionTemplate.execute(status -> userRepository.backfillEmailKeys());
+        if (backfilled != null && backfilled > 0) {
+            logger.info("Backfilled normalized email keys for {} users.", backfilled);
+        }
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${addressbook.email-filter.rebuild-interval:6h}",
+            fixedDelayString = "${addressbook.email-filter.rebuild-interval:6h}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        Long users = transactionTemplate.execute(status -> userRepository.count());
+        // Room to grow until the next rebuild without the false positive rate going up much
+        Bits next = new Bits(Math.max(minCapacity, (users == null ? 0 : users) * 2), falsePositiveRate);
+        long failedRelaysBefore;
+        synchronized (this) {
+            building = next;
+            failedRelaysBefore = failedRelays;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emailKeys = userRepository.streamEmailKeys()) {
+                    emailKeys.forEach(next::put);
+                }
+            });
+            synchronized (this) {
+                if (failedRelays != failedRelaysBefore) {
+                    // The scan may have passed those users before they committed: keep bypassing until the next rebuild
+                    logger.warn("Discarded the rebuilt email Bloom filter: relayed emails could not be added while it was built.");
+                    return;
+                }
+                current = next;
+            }
+            logger.info("Built the email Bloom filter over {} users in {} ms ({} KiB, {} hashes).",
+                    users, (System.nanoTime() - started) / 1_000_000, next.sizeInBytes() / 1024, next.hashes);
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+        }
+    }
+
+    // Emails written on any instance, once relayed from the outbox
+    @EventListener
+    public void onChanges(UserChangeBatch batch) {
+        List<Long> userIds = batch.events().stream()
+                .filter(event -> event.getType() != OutboxEvent.Type.DELETED)
+                .map(UserChangeEventDTO::getUserId)
+                .distinct()
+                .toList();
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.findEmailKeysByIdIn(userIds).forEach(this::add));
+        } catch (RuntimeException e) {
+            // Missing an email would turn lookups of it into false "absent" answers: answer "maybe" until rebuilt
+            logger.warn("Could not add relayed emails to the Bloom filter, bypassing it until the next rebuild: {}", e.getMessage());
+            synchronized (this) {
+                current = null;
+                failedRelays++;
+            }
+        }
+    }
+
+    // Fixed-size bit set with k probes per key, derived from one 64-bit hash by double hashing
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashes;
+
+        private Bits(long capacity, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = wordCount * 64L;
+            this.hashes = (int) Math.max(1, Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        private void put(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9e3779b97f4a7c15L) | 1; // Odd, so the probes cover the whole table
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                while (((value = words.get(word)) & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    // Another thread set a bit of the same word in between; retry
+                }
+            }
+        }
+
+        private boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9e3779b97f4a7c15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long sizeInBytes() {
+            return bitCount / 8;
+        }
+
+        // FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
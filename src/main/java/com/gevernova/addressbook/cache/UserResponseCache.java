@@ -0,0 +1,82 @@
+package com.gevernova.addressbook.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+// Ready-to-send JSON bodies of GET /api/users/{id}, keyed by user id. Bounded by total size in bytes
+// (W-TinyLFU eviction) and expired after a TTL; a hit skips the database, mapping and serialization.
+@Component
+public class UserResponseCache {
+
+    // Rough per-entry overhead (entry, key, array header) added to the JSON size when weighing
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Cache<Long, byte[]> cache;
+    // Bumped by every invalidation; a body loaded while an invalidation happened may be stale and is not stored
+    private final AtomicLong invalidations = new AtomicLong();
+    // Ids written within the read-replica lag: a body loaded now may come from a replica that hasn't seen the
+    // write yet, so it is returned but not stored (null without read replicas)
+    private final Cache<Long, Boolean> recentlyWritten;
+
+    public UserResponseCache(@Value("${addressbook.user-cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${addressbook.user-cache.ttl:10m}") Duration ttl,
+                             @Value("${addressbook.read-replicas.max-lag:0s}") Duration replicaLag,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, byte[] json) -> json.length + ENTRY_OVERHEAD_BYTES)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=users.byId
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.byId");
+        this.recentlyWritten = replicaLag.isZero() ? null : Caffeine.newBuilder().expireAfterWrite(replicaLag).build();
+    }
+
+    // Returns the cached body, or loads, stores and returns it. The loader may throw (e.g. user not found);
+    // nothing is cached then.
+    public byte[] get(long id, LongFunction<byte[]> loader) {
+        byte[] json = cache.getIfPresent(id);
+        if (json != null) {
+            return json;
+        }
+        long stamp = invalidations.get();
+        json = loader.apply(id);
+        if (invalidations.get() == stamp && (recentlyWritten == null || recentlyWritten.getIfPresent(id) == null)) {
+            cache.put(id, json);
+        }
+        return json;
+    }
+
+    // Drops the entry now and, when called inside a transaction, again after it commits: a reader that loaded
+    // the old row before the commit cannot leave a stale body behind.
+    public void invalidate(long id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    private void evict(long id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+        if (recentlyWritten != null) {
+            recentlyWritten.put(id, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.gevernova.addressbook.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Wraps the pooled DataSource in a ConnectionLimitingDataSource (enabled by the vthreads profile)
+@Configuration
+@ConditionalOnProperty(name = "addressbook.db-gate.enabled", havingValue = "true")
+public class ConnectionGateConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionGateConfig.class);
+
+    // Bean name of the DataSource that Spring Boot's DataSourceAutoConfiguration creates
+    static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    // Runs before ReadReplicaConfig's post-processor: the gate guards the primary pool only, and the replica
+    // router then wraps the gated primary
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    // static: post-processors are created before the rest of the configuration. Declared with its own type
+    // so the Ordered is seen before the bean is created.
+    @Bean
+    public static ConnectionGatePostProcessor connectionGatePostProcessor(
+            @Value("${addressbook.db-gate.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${addressbook.db-gate.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new ConnectionGatePostProcessor(permits, acquireTimeout);
+    }
+
+    static final class ConnectionGatePostProcessor implements BeanPostProcessor, Ordered {
+
+        private final int permits;
+        private final Duration acquireTimeout;
+
+        ConnectionGatePostProcessor(int permits, Duration acquireTimeout) {
+            this.permits = permits;
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!PRIMARY_DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            logger.info("Limiting DataSource '{}' to {} concurrent connections (acquire timeout {}).", beanName, permits, acquireTimeout);
+            return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeout);
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+}
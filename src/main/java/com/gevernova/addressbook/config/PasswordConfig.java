@@ -0,0 +1,19 @@
+package com.gevernova.addressbook.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordConfig {
+
+    // User.password stores a BCrypt hash, never the raw value from UserRequestDTO. Each step of the strength
+    // (log2 rounds) doubles the cost of a hash; hashes made with a lower strength are upgraded the next time
+    // their password is verified (see PasswordHasher.needsRehash).
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${addressbook.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
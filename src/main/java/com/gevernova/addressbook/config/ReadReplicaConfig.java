@@ -0,0 +1,122 @@
+package com.gevernova.addressbook.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Puts the pooled DataSource behind a ReadReplicaRoutingDataSource with one pool per configured replica
+@Configuration
+@ConditionalOnProperty(name = "addressbook.read-replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    // After ConnectionGateConfig's post-processor, so with both enabled the router's primary is the gated pool
+    static final int ORDER = ConnectionGateConfig.ORDER + 1;
+
+    // static: post-processors are created before the rest of the configuration, so the properties are bound here.
+    // Declared with its own type so the Ordered is seen before the bean is created.
+    @Bean
+    public static ReadReplicaPostProcessor readReplicaPostProcessor(Environment environment) {
+        ReadReplicaProperties properties = Binder.get(environment)
+                .bind("addressbook.read-replicas", ReadReplicaProperties.class)
+                .orElseGet(ReadReplicaProperties::new);
+        return new ReadReplicaPostProcessor(properties);
+    }
+
+    static final class ReadReplicaPostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+
+        private final ReadReplicaProperties properties;
+
+        ReadReplicaPostProcessor(ReadReplicaProperties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!ConnectionGateConfig.PRIMARY_DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource primary)) {
+                return bean;
+            }
+            HikariDataSource primaryPool = unwrapPool(primary);
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (ReadReplicaProperties.Replica replica : properties.getReplicas()) {
+                replicas.add(replicaPool(primaryPool, replica, replicas.size() + 1));
+            }
+            logger.info("Routing read-only transactions of DataSource '{}' to {} replica(s) ({}, max lag {}).",
+                    beanName, replicas.size(), properties.getSelection(), properties.getMaxLag());
+            // Lazy: the real connection, and with it the primary/replica choice, waits for the first statement
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+            proxy.setTargetDataSource(new ReadReplicaRoutingDataSource(primary, replicas, properties.getSelection()));
+            if (primaryPool != null) {
+                proxy.setDefaultAutoCommit(primaryPool.isAutoCommit());
+            }
+            proxy.afterPropertiesSet();
+            return proxy;
+        }
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+            Object target = bean;
+            while (target instanceof DelegatingDataSource delegating) {
+                target = delegating.getTargetDataSource();
+            }
+            if (target instanceof ReadReplicaRoutingDataSource router) {
+                router.close();
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "addressbook.read-replicas.read-your-writes", havingValue = "true", matchIfMissing = true)
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.getMaxLag());
+    }
+
+    // A replica pool is the primary's pool settings with the replica's url (and credentials, if given)
+    private static HikariDataSource replicaPool(HikariDataSource primaryPool, ReadReplicaProperties.Replica replica, int number) {
+        HikariConfig config = new HikariConfig();
+        if (primaryPool != null) {
+            primaryPool.copyStateTo(config);
+        }
+        config.setJdbcUrl(replica.getUrl());
+        if (replica.getUsername() != null) {
+            config.setUsername(replica.getUsername());
+        }
+        if (replica.getPassword() != null) {
+            config.setPassword(replica.getPassword());
+        }
+        config.setPoolName("replica-" + number);
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+    private static HikariDataSource unwrapPool(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
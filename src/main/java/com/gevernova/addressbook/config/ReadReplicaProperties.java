@@ -0,0 +1,44 @@
+package com.gevernova.addressbook.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// addressbook.read-replicas.*: read-only copies of the primary database, e.g.
+//   addressbook.read-replicas.enabled=true
+//   addressbook.read-replicas.replicas[0].url=jdbc:mysql://replica-1:3306/addressbook
+// (username, password and pool settings default to the primary's spring.datasource.* ones)
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "addressbook.read-replicas")
+public class ReadReplicaProperties {
+
+    public enum Selection {
+        ROUND_ROBIN,  // replicas take turns
+        LEAST_LOADED  // the replica with the fewest active and waiting connections
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    private boolean enabled;
+
+    private Selection selection = Selection.ROUND_ROBIN;
+
+    // How far the replicas may trail the primary. A client that wrote reads from the primary for this long,
+    // and cached responses loaded this soon after a write are not kept.
+    private Duration maxLag = Duration.ZERO;
+
+    private boolean readYourWrites = true;
+
+    private List<Replica> replicas = new ArrayList<>();
+}
@@ -0,0 +1,92 @@
+package com.gevernova.addressbook.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a replica and everything else (writes, work outside a transaction, requests
+// pinned by ReadYourWritesFilter) to the primary. Used behind a LazyConnectionDataSourceProxy, so the choice is
+// made at the first statement, when the transaction's read-only flag is already set.
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    // Set while serving a client that wrote within the replica lag
+    private static final ThreadLocal<Boolean> primaryPinned = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReadReplicaProperties.Selection selection;
+    private final AtomicInteger turn = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                        ReadReplicaProperties.Selection selection) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public static void pinToPrimary() {
+        primaryPinned.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        primaryPinned.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || primaryPinned.get() != null) {
+            return PRIMARY;
+        }
+        int first = Math.floorMod(turn.getAndIncrement(), replicas.size());
+        if (selection == ReadReplicaProperties.Selection.ROUND_ROBIN) {
+            return first;
+        }
+        // Least loaded; ties go to the next replica in turn, so idle replicas share the work
+        int chosen = first;
+        int lowestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (first + i) % replicas.size();
+            int load = load(replicas.get(candidate));
+            if (load < lowestLoad) {
+                chosen = candidate;
+                lowestLoad = load;
+            }
+        }
+        return chosen;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        if (primary instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+    }
+
+    // Borrowed plus waiting connections; a pool that hasn't started yet counts as idle
+    private static int load(HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+    }
+}
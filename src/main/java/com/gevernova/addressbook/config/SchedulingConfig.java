@@ -0,0 +1,10 @@
+package com.gevernova.addressbook.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Periodic maintenance jobs (@Scheduled), e.g. the facet count reconciliation
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,17 +1,47 @@
 package com.gevernova.addressbook.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gevernova.addressbook.cache.UserResponseCache;
+import com.gevernova.addressbook.dto.AddressResponseDTO;
+import com.gevernova.addressbook.dto.BulkDeleteResultDTO;
+import com.gevernova.addressbook.dto.BulkImportResultDTO;
+import com.gevernova.addressbook.dto.CursorPage;
+import com.gevernova.addressbook.dto.FacetBucketDTO;
 import com.gevernova.addressbook.dto.ResponseDTO;
+import com.gevernova.addressbook.dto.SearchResultDTO;
+import com.gevernova.addressbook.dto.UserBatchDTO;
+import com.gevernova.addressbook.dto.UserChangesDTO;
+import com.gevernova.addressbook.dto.UserPatchDTO;
 import com.gevernova.addressbook.dto.UserRequestDTO;
 import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.dto.UserSummaryDTO;
 import com.gevernova.addressbook.exceptionhandler.UserNotFoundException; // Updated import path
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.AddressSearchCriteria;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.repository.UserFields;
+import com.gevernova.addressbook.service.ExportFormat;
+import com.gevernova.addressbook.service.UserBulkDeleteService;
+import com.gevernova.addressbook.service.UserChangeStream;
+import com.gevernova.addressbook.service.UserExportService;
+import com.gevernova.addressbook.service.UserImportService;
+import com.gevernova.addressbook.service.UserSearchService;
 import com.gevernova.addressbook.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,39 +52,190 @@ public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
+    // Page size used when the client does not pass 'limit'; the service caps it at 500
+    private static final String DEFAULT_PAGE_LIMIT = "50";
+
     private final UserService userService;
+    private final UserSearchService userSearchService;
+    private final UserImportService userImportService;
+    private final UserBulkDeleteService userBulkDeleteService;
+    private final UserExportService userExportService;
+    private final UserResponseCache userResponseCache;
+    private final UserChangeStream userChangeStream;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserSearchService userSearchService,
+                          UserImportService userImportService, UserBulkDeleteService userBulkDeleteService,
+                          UserExportService userExportService, UserResponseCache userResponseCache,
+                          UserChangeStream userChangeStream, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.userSearchService = userSearchService;
+        this.userImportService = userImportService;
+        this.userBulkDeleteService = userBulkDeleteService;
+        this.userExportService = userExportService;
+        this.userResponseCache = userResponseCache;
+        this.userChangeStream = userChangeStream;
+        this.objectMapper = objectMapper;
     }
 
-    // GET all users
+    // GET all users, one keyset page at a time (follow 'next' for the following page).
+    // view=summary or fields=... return only those scalar fields, selected without loading entities.
     @GetMapping
-    public ResponseEntity<ResponseDTO> getAllUsers() {
-        logger.info("Received request to retrieve all users.");
-        List<UserResponseDTO> userResponseDTOs = userService.getAllUsers();
-        logger.info("Successfully retrieved {} users.", userResponseDTOs.size());
+    public ResponseEntity<ResponseDTO> getAllUsers(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        logger.info("Received request to retrieve users sorted by '{}' (limit {}).", sort, limit);
+        UserFields projection = UserFields.fromParams(view, fields);
+        if (projection != null) {
+            return summaryPage("get all addresses", null, projection, UserSort.fromParam(sort), cursor, limit);
+        }
+        CursorPage<UserResponseDTO> page = userService.getAllUsers(UserSort.fromParam(sort), cursor, limit);
+        logger.info("Successfully retrieved {} users.", page.getItems().size());
         return new ResponseEntity<>(ResponseDTO.builder()
                 .message("get all addresses")
-                .data(userResponseDTOs)
+                .data(page.getItems())
+                .next(page.getNext())
                 .build(), HttpStatus.OK);
     }
 
-    // GET user by ID
+    // GET several users by ID in one call (ids=1,2,3): found users in request order, unknown ids listed apart
+    @GetMapping(params = "ids")
+    public ResponseEntity<ResponseDTO> getUsersByIds(@RequestParam List<Long> ids) {
+        logger.info("Received request to retrieve {} users by ID.", ids.size());
+        UserBatchDTO batch = userService.getUsersByIds(ids);
+        logger.info("Successfully retrieved {} users, {} IDs not found.", batch.getUsers().size(), batch.getMissingIds().size());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Fetched " + batch.getUsers().size() + " users")
+                .data(batch)
+                .build());
+    }
+
+    // GET the user with an email (case-insensitive), e.g. a sign-up form's "is this email taken?" check.
+    // Most misses are answered by an in-memory filter without a database query.
+    @GetMapping("/by-email")
+    public ResponseEntity<ResponseDTO> getUserByEmail(@RequestParam String email) {
+        logger.info("Received request to look up a user by email.");
+        UserResponseDTO user = userService.getUserByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("No user with this email was found."));
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Fetched user by email")
+                .data(user)
+                .build());
+    }
+
+    // GET what changed since a sync token: users created or updated, ids deleted, and the token for the next call.
+    // Omit 'since' for a full first sync; keep calling while hasMore is true.
+    @GetMapping("/changes")
+    public ResponseEntity<ResponseDTO> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit) {
+        logger.info("Received delta sync request (limit {}).", limit);
+        UserChangesDTO changes = userService.getChanges(since, limit);
+        logger.info("Delta sync returned {} changed and {} deleted users.", changes.getChanged().size(), changes.getDeleted().size());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Changes since token")
+                .data(changes)
+                .build());
+    }
+
+    // GET the number of users per state, city, country or tag (by=...), largest first; with by=city, 'state'
+    // lists the cities of one state. Served from incrementally kept counts, not by scanning the users.
+    @GetMapping("/facets")
+    public ResponseEntity<ResponseDTO> getFacets(
+            @RequestParam String by,
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit) {
+        logger.info("Received request for user counts by '{}' (limit {}).", by, limit);
+        List<FacetBucketDTO> facets = userService.getFacets(by, state, limit);
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("User counts by " + by.trim().toLowerCase())
+                .data(facets)
+                .build());
+    }
+
+    // GET a Server-Sent Events stream of user changes (event 'user-change'); EventSource clients resume
+    // automatically through the Last-Event-ID header, others may pass lastEventId
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        return userChangeStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    // GET a streamed export of every user with addresses; resume an interrupted export with afterId
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        logger.info("Received request to export users as {} after ID {} (gzip={}).", exportFormat, afterId, gzip);
+
+        // Rows are written while they are read, on the MVC async thread, so the response is never held in memory
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024, true);
+                userExportService.exportUsers(exportFormat, afterId, gzipStream);
+                gzipStream.finish();
+            } else {
+                userExportService.exportUsers(exportFormat, afterId, outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + exportFormat.getFileExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // GET all addresses sorted by city, one keyset page at a time
+    @GetMapping("/addresses")
+    public ResponseEntity<ResponseDTO> getAddressesSortedByCity(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit) {
+        logger.info("Received request to retrieve addresses sorted by city (limit {}).", limit);
+        CursorPage<AddressResponseDTO> page = userService.getAddressesSortedByCity(cursor, limit);
+        logger.info("Successfully retrieved {} addresses.", page.getItems().size());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Addresses sorted by city")
+                .data(page.getItems())
+                .next(page.getNext())
+                .build());
+    }
+
+    // GET a user by ID, served from the pre-serialized response cache when possible
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDTO> getUserById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getUserById(@PathVariable Long id) {
         logger.info("Received request to retrieve user with ID: {}", id);
+        byte[] body = userResponseCache.get(id, this::loadUserJson);
+        logger.info("Successfully retrieved user with ID: {}.", id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Cache miss: load, map and serialize exactly what Spring MVC would have written for the ResponseDTO
+    private byte[] loadUserJson(long id) {
         UserResponseDTO userResponseDTO = userService.getUserById(id)
                 .orElseThrow(() -> {
                     logger.warn("User with ID: {} not found.", id);
                     return new UserNotFoundException("User with ID: " + id + " was not found.");
                 });
-        logger.info("Successfully retrieved user with ID: {}.", id);
-        return ResponseEntity.ok(ResponseDTO.builder()
-                .message("Fetched user with ID: " + id)
-                .data(userResponseDTO)
-                .build());
+        try {
+            return objectMapper.writeValueAsBytes(ResponseDTO.builder()
+                    .message("Fetched user with ID: " + id)
+                    .data(userResponseDTO)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user with ID: " + id, e);
+        }
     }
 
     // POST a new user
@@ -70,6 +251,20 @@ public class UserController {
                 .build(), HttpStatus.CREATED);
     }
 
+    // POST many users at once as a JSON array or NDJSON stream; invalid rows are reported, not fatal
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResponseDTO> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                   InputStream body) throws IOException {
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        logger.info("Received bulk import request ({}).", ndjson ? "NDJSON" : "JSON array");
+        BulkImportResultDTO result = userImportService.importUsers(body, ndjson);
+        logger.info("Bulk import imported {} users, {} rows failed.", result.getImported(), result.getFailed());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Imported " + result.getImported() + " of " + result.getReceived() + " users")
+                .data(result)
+                .build());
+    }
+
     // PUT to update an existing user by ID
     @PutMapping("/{id}")
     public ResponseEntity<ResponseDTO> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDTO userRequestDTO) {
@@ -82,6 +277,18 @@ public class UserController {
                 .build());
     }
 
+    // PATCH an existing user: only the fields present in the body are changed
+    @PatchMapping("/{id}")
+    public ResponseEntity<ResponseDTO> patchUser(@PathVariable Long id, @Valid @RequestBody UserPatchDTO userPatchDTO) {
+        logger.info("Received request to patch user with ID: {}.", id);
+        UserResponseDTO patchedUser = userService.patchUser(id, userPatchDTO);
+        logger.info("Successfully patched user with ID: {}.", patchedUser.getId());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Patched user with ID: " + id)
+                .data(patchedUser)
+                .build());
+    }
+
     // DELETE a user by ID
     @DeleteMapping("/{id}")
     public ResponseEntity<ResponseDTO> deleteUser(@PathVariable Long id) {
@@ -94,37 +301,104 @@ public class UserController {
                 .build(),HttpStatus.NO_CONTENT);
     }
 
+    // DELETE many users at once: ids=1,2,3, or every user with an address in a state and/or with a tag
+    // (e.g. state=TX&tag=acme). Runs in chunked transactions; chunks committed before a failure stay deleted.
+    @DeleteMapping
+    public ResponseEntity<ResponseDTO> deleteUsers(@RequestParam(required = false) List<Long> ids,
+                                                   @RequestParam(required = false) String state,
+                                                   @RequestParam(required = false) String tag) {
+        logger.info("Received bulk delete request.");
+        BulkDeleteResultDTO result = userBulkDeleteService.deleteUsers(ids, state, tag);
+        logger.info("Bulk delete removed {} users in {} chunks.", result.getDeleted(), result.getChunks());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Deleted " + result.getDeleted() + " users")
+                .data(result)
+                .build());
+    }
+
     @GetMapping("/search-by-address")
     public ResponseEntity<ResponseDTO> searchUsersByAddressLocation(
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) String state) {
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String zip,
+            @RequestParam(defaultValue = "contains") String match,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
 
-        logger.info("Received search request for users by address: city='{}', state='{}'.", city, state);
+        logger.info("Received search request for users by address: city='{}', state='{}', zip='{}', match='{}'.",
+                city, state, zip, match);
 
         boolean hasCity = city != null && !city.isEmpty();
         boolean hasState = state != null && !state.isEmpty();
+        boolean hasZip = zip != null && !zip.isEmpty();
+        MatchMode matchMode = MatchMode.fromParam(match);
+        UserSort userSort = UserSort.fromParam(sort);
 
-        List<UserResponseDTO> users;
+        UserFields projection = UserFields.fromParams(view, fields);
+        if (projection != null) {
+            // Same criteria as the branches below
+            AddressSearchCriteria criteria = hasZip ? AddressSearchCriteria.zipCode(zip, matchMode)
+                    : hasCity && hasState ? AddressSearchCriteria.cityAndState(city, state, matchMode)
+                    : hasCity ? AddressSearchCriteria.city(city, matchMode)
+                    : hasState ? AddressSearchCriteria.state(state, matchMode)
+                    : null;
+            return summaryPage("Search users by address", criteria, projection, userSort, cursor, limit);
+        }
+
+        CursorPage<UserResponseDTO> users;
 
-        if (hasCity && hasState) {
+        if (hasZip) {
+            // Zip codes are selective enough on their own, city/state are not combined with them
+            users = userService.findUsersByAddressZipCode(zip, matchMode, userSort, cursor, limit);
+        } else if (hasCity && hasState) {
             // Case 1: Both city and state provided (AND condition)
-            users = userService.findUsersByAddressCityAndState(city, state);
+            users = userService.findUsersByAddressCityAndState(city, state, matchMode, userSort, cursor, limit);
         } else if (hasCity) {
             // Case 2: Only city provided
-            users = userService.findUsersByAddressCity(city);
+            users = userService.findUsersByAddressCity(city, matchMode, userSort, cursor, limit);
         } else if (hasState) {
             // Case 3: Only state provided
-            users = userService.findUsersByAddressState(state);
+            users = userService.findUsersByAddressState(state, matchMode, userSort, cursor, limit);
         } else {
             // Case 4: Neither city nor state provided - return all users
             logger.info("No specific search parameters provided. Returning all users.");
-            users = userService.getAllUsers(); // Or a specific 'findAllAddressesSortedByCity' if you had one.
+            users = userService.getAllUsers(userSort, cursor, limit);
         }
 
-        logger.info("Returning {} users matching address search criteria.", users.size());
+        logger.info("Returning {} users matching address search criteria.", users.getItems().size());
         return ResponseEntity.ok(ResponseDTO.builder()
                 .message("Search users by address")
-                .data(users)
+                .data(users.getItems())
+                .next(users.getNext())
+                .build());
+    }
+
+    private ResponseEntity<ResponseDTO> summaryPage(String message, AddressSearchCriteria criteria, UserFields projection,
+                                                    UserSort sort, String cursor, int limit) {
+        CursorPage<UserSummaryDTO> page = userService.findUserSummaries(criteria, projection, sort, cursor, limit);
+        logger.info("Returning {} user summaries.", page.getItems().size());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message(message)
+                .data(page.getItems())
+                .next(page.getNext())
+                .build());
+    }
+
+    // Ranked, fuzzy full-text search served from the embedded index
+    @GetMapping("/search")
+    public ResponseEntity<ResponseDTO> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.info("Received full-text search request: q='{}', page={}, size={}.", q, page, size);
+        SearchResultDTO result = userSearchService.search(q, page, size);
+        logger.info("Returning {} of {} full-text search hits.", result.getHits().size(), result.getTotalHits());
+        return ResponseEntity.ok(ResponseDTO.builder()
+                .message("Full-text search for: " + q)
+                .data(result)
                 .build());
     }
-}
\ No newline at end of file
+}
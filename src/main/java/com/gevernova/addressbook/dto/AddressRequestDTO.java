@@ -11,6 +11,9 @@ import lombok.*;
 @Generated
 public class AddressRequestDTO {
 
+    // Id of an existing address of the user when updating it; null for a new address
+    private Long id;
+
     @NotBlank(message = "Address line 1 is a mandatory field")
     @Size(max = 255, message = "Address line 1 must not exceed 255 characters in length")
     private String street;
@@ -0,0 +1,17 @@
+package com.gevernova.addressbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkDeleteResultDTO {
+    private long deleted;
+    private long chunks; // Committed transactions; a failure keeps the chunks committed before it
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
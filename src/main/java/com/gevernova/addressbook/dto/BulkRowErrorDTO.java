@@ -0,0 +1,16 @@
+package com.gevernova.addressbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Why a single row of a bulk import was rejected; rows are numbered from 1 in input order
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowErrorDTO {
+    private long row;
+    private List<String> messages;
+}
@@ -0,0 +1,18 @@
+package com.gevernova.addressbook.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One bucket of GET /api/users/facets: a value and the number of users with an address there.
+// 'state' is only set for cities, which are counted per state.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetBucketDTO {
+    private String value;
+    private String state;
+    private long users;
+}
@@ -1,5 +1,6 @@
 package com.gevernova.addressbook.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,4 +13,8 @@ import lombok.NoArgsConstructor;
 public class ResponseDTO {
     private String message;
     Object data;
+
+    // Opaque keyset cursor for the next page; only present on paginated responses
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
 }
@@ -0,0 +1,18 @@
+package com.gevernova.addressbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A page of ranked full-text search hits (best match first)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDTO {
+    private long totalHits;
+    private int page;
+    private int size;
+    private List<UserSearchHitDTO> hits;
+}
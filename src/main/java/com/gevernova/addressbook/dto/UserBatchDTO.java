@@ -0,0 +1,16 @@
+package com.gevernova.addressbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Result of a multi-get: the users found, in request order, and the requested ids that don't exist
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchDTO {
+    private List<UserResponseDTO> users;
+    private List<Long> missingIds;
+}
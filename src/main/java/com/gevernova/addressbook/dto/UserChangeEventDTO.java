@@ -0,0 +1,26 @@
+package com.gevernova.addressbook.dto;
+
+import com.gevernova.addressbook.entity.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One event of the change stream. Events are thin: subscribers fetch the users they care about,
+// e.g. through GET /api/users?ids=. 'id' is the SSE event id ("<version>-<event id>") to resume from.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeEventDTO {
+    private String id;
+    private OutboxEvent.Type type;
+    private Long userId;
+    private long version;
+    private Instant occurredAt;
+
+    public static UserChangeEventDTO of(OutboxEvent event) {
+        return new UserChangeEventDTO(event.getChangeVersion() + "-" + event.getId(), event.getType(),
+                event.getUserId(), event.getChangeVersion(), event.getOccurredAt());
+    }
+}
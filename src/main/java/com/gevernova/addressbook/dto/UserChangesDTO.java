@@ -0,0 +1,19 @@
+package com.gevernova.addressbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One delta sync response: users created or updated and ids deleted since the client's token, in change
+// order. 'since' is the token for the next call; while hasMore is true, call again right away.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangesDTO {
+    private List<UserResponseDTO> changed;
+    private List<Long> deleted;
+    private String since;
+    private boolean hasMore;
+}
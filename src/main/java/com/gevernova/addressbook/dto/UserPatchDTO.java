@@ -0,0 +1,43 @@
+package com.gevernova.addressbook.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Partial update of a user: null (absent) fields are left unchanged.
+// When 'addresses' is present it is the complete new list and is merged by address id.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPatchDTO {
+
+    // @NotBlank for a present field: null (absent) passes @Pattern, whitespace only does not
+    private static final String NOT_BLANK = "(?s).*\\S.*";
+
+    @Size(min = 1, max = 50, message = "First name must be between 1 and 50 characters in length")
+    @Pattern(regexp = NOT_BLANK, message = "First name must not be blank")
+    private String firstName;
+
+    @Size(min = 1, max = 50, message = "Last name must be between 1 and 50 characters in length")
+    @Pattern(regexp = NOT_BLANK, message = "Last name must not be blank")
+    private String lastName;
+
+    @Size(max = 20, message = "Phone number must not exceed 20 characters in length")
+    @Pattern(regexp = "[0-9]{10}$", message = "Phone number format is invalid")
+    private String phoneNumber;
+
+    @Email(message = "A valid email address is required")
+    @Size(min = 1, max = 100, message = "Email must be between 1 and 100 characters in length")
+    private String email;
+
+    @Size(min = 1, max = 100, message = "Password must be between 1 and 100 characters in length")
+    @Pattern(regexp = NOT_BLANK, message = "Password must not be blank")
+    private String password;
+
+    @Valid // Ensures that validation rules inside AddressRequestDTO are applied
+    private java.util.List<AddressRequestDTO> addresses;
+}
@@ -0,0 +1,18 @@
+package com.gevernova.addressbook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One full-text search hit, built purely from fields stored in the search index
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchHitDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phoneNumber;
+    private float score;
+}
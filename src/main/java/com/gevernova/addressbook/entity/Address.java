@@ -1,10 +1,26 @@
 package com.gevernova.addressbook.entity;
 
+import com.gevernova.addressbook.util.TextNormalizer;
+import com.gevernova.addressbook.search.AddressBookAnalysisConfigurer;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "address") // Second-level cache; see application.conf for the region bounds
+@DynamicUpdate // UPDATE only the changed columns, e.g. a phone-number-only PATCH
+@Table(indexes = {
+        @Index(name = "idx_address_city_id", columnList = "city, id"), // Keyset pagination of addresses by city
+        // Exact/prefix searches on the normalized keys; user_id makes them covering for the EXISTS semi-join
+        @Index(name = "idx_address_city_key", columnList = "cityKey, user_id"),
+        @Index(name = "idx_address_state_key", columnList = "stateKey, user_id"),
+        @Index(name = "idx_address_zip_key", columnList = "zipKey, user_id")
+})
 @Data
 @Generated
 @Getter
@@ -16,15 +32,18 @@ import java.util.List;
 public class Address {
 
     @Id // Identifies this field as the primary key
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Configures the primary key for auto-incrementation
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_seq") // Pooled sequence so inserts can be batched
+    @SequenceGenerator(name = "address_seq", sequenceName = "address_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "address_line1")
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING)
     private String street;
 
     @Column(name = "address_line2")
     private String addressLine2;
 
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING)
     private String city;
 
     private String state;
@@ -33,12 +52,38 @@ public class Address {
 
     private String country;
 
+    // Lower-case, accent-folded copies of city/state/zipCode used by the search queries (countryKey: by the
+    // facet counts).
+    // Maintained by normalizeSearchKeys(), never set directly.
+    @Column(length = 100)
+    private String cityKey;
+
+    @Column(length = 100)
+    private String stateKey;
+
+    @Column(length = 10)
+    private String zipKey;
+
+    @Column(length = 100)
+    private String countryKey;
+
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "address-tags")
     @CollectionTable(name = "address_tags",joinColumns=@JoinColumn(name="address_id"))
     @Column(name = "tag_name")
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING)
     private List<String> tags;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY) // Never needed when mapping an address; avoids one SELECT per owning user
     @JoinColumn(name = "user_id" ,nullable = false)
     private User user;
+
+    @PrePersist
+    @PreUpdate
+    public void normalizeSearchKeys() {
+        this.cityKey = TextNormalizer.normalize(city);
+        this.stateKey = TextNormalizer.normalize(state);
+        this.zipKey = TextNormalizer.normalize(zipCode);
+        this.countryKey = TextNormalizer.normalize(country);
+    }
 }
\ No newline at end of file
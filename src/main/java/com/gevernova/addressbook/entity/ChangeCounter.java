@@ -0,0 +1,27 @@
+package com.gevernova.addressbook.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Single row holding the last change version handed out (see UserChangeTracker). Not cached: it is only
+// ever read under a row lock.
+@Entity
+@Table(name = "change_counter")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeCounter {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    private long lastVersion;
+}
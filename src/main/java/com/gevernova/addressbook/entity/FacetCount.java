@@ -0,0 +1,65 @@
+package com.gevernova.addressbook.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+// Number of users with at least one address in a bucket (GET /api/users/facets). Kept up to date by the
+// write transactions themselves (see FacetCounter), so reading a facet costs one row per bucket.
+// Buckets are keyed by the normalized value; the label is a value as written, for display.
+@Entity
+@Table(name = "facet_count")
+@IdClass(FacetCount.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+
+    public enum Dimension {
+        STATE, CITY, COUNTRY, TAG
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Dimension dimension;
+        private String parentKey;
+        private String bucketKey;
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Dimension dimension;
+
+    // State key of a city bucket (cities are counted per state), "" for the other dimensions
+    @Id
+    @Column(length = 100)
+    private String parentKey;
+
+    @Id
+    private String bucketKey;
+
+    private String parentLabel;
+
+    private String label;
+
+    private long userCount;
+
+    public Key key() {
+        return new Key(dimension, parentKey, bucketKey);
+    }
+}
@@ -0,0 +1,55 @@
+package com.gevernova.addressbook.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// A user change, written in the transaction of the change itself and relayed to the change stream
+// (GET /api/users/stream) by OutboxRelay. Ordered by (changeVersion, id), which is commit order.
+@Entity
+@Table(name = "outbox_event",
+        indexes = {
+                @Index(name = "idx_outbox_event_version_id", columnList = "changeVersion, id"), // Relay and resume
+                @Index(name = "idx_outbox_event_occurred_at", columnList = "occurredAt") // Retention purge
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    private long changeVersion;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private Long userId;
+
+    private Instant occurredAt;
+
+    public OutboxEvent(long changeVersion, Type type, Long userId, Instant occurredAt) {
+        this.changeVersion = changeVersion;
+        this.type = type;
+        this.userId = userId;
+        this.occurredAt = occurredAt;
+    }
+}
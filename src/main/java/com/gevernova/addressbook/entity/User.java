@@ -1,14 +1,34 @@
 package com.gevernova.addressbook.entity;
 
+import com.gevernova.addressbook.search.AddressBookAnalysisConfigurer;
+import com.gevernova.addressbook.util.TextNormalizer;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "app_user") // Renamed to avoid potential conflicts with 'USER' keyword in some databases
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user") // Second-level cache; see application.conf for the region bounds
+@DynamicUpdate // UPDATE only the changed columns, e.g. a phone-number-only PATCH
+@Indexed // Full-text index kept in sync by Hibernate Search on every committed write
+@Table(name = "app_user", // Renamed to avoid potential conflicts with 'USER' keyword in some databases
+        indexes = {
+                @Index(name = "idx_app_user_last_name_id", columnList = "lastName, id"), // Keyset pagination by last name
+                @Index(name = "idx_app_user_primary_city_id", columnList = "primaryCity, id"), // Keyset pagination by city
+                @Index(name = "idx_app_user_change_version_id", columnList = "changeVersion, id") // Delta sync
+        },
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_KEY_CONSTRAINT, columnNames = "emailKey")) // One user per email
 @Data
 @Getter
 @Setter
@@ -18,25 +38,68 @@ import java.util.List;
 @EqualsAndHashCode(exclude = "addresses") // Exclude addresses to prevent circular references and stack overflow
 public class User {
 
+    public static final String EMAIL_KEY_CONSTRAINT = "uk_app_user_email_key";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY: ids are known before INSERT, so Hibernate can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING, projectable = Projectable.YES)
     private String firstName;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING, projectable = Projectable.YES)
     private String lastName;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING, projectable = Projectable.YES)
     private String phoneNumber;
 
     @Column(nullable = false)
+    @FullTextField(analyzer = AddressBookAnalysisConfigurer.FOLDING, projectable = Projectable.YES)
     private String email;
 
+    // Normalized copy of email behind the unique constraint and the lookup by email; set with the email
+    @Column(length = 100)
+    private String emailKey;
+
     @Column(nullable = false)
     private String password;
 
+    // City of the first address, denormalized so users can be keyset-paginated by city through an index.
+    // Empty string when the user has no address, so the keyset comparison never meets a NULL. Rows that predate
+    // the column are filled by PrimaryCityBackfill.
+    @Column(nullable = false)
+    @ColumnDefault("''")
+    private String primaryCity = "";
+
+    // Change version of the last write to this user or its addresses (UserChangeTracker). Rows that predate
+    // the column get 0, so a client's first delta sync still sees them.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long changeVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id") // Loaded oldest first; new addresses are appended and get higher ids, so the order holds
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-addresses") // Caches the address ids; the addresses come from their own region
+    @IndexedEmbedded(includePaths = {"street", "city", "tags"})
     private List<Address> addresses = new ArrayList<>(); // Initialize to prevent NullPointerExceptions
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailKey = TextNormalizer.normalizeEmail(email);
+    }
+
+    // The city of the first address, i.e. the lowest id, as PrimaryCityBackfill derives it with MIN(id).
+    // Must be called whenever the address list changes; the owning side of the relation is Address,
+    // so Hibernate would not fire @PreUpdate on the user for an address-only change.
+    @PrePersist
+    public void syncPrimaryCity() {
+        this.primaryCity = (addresses == null || addresses.isEmpty() || addresses.get(0).getCity() == null)
+                ? ""
+                : addresses.get(0).getCity();
+    }
 }
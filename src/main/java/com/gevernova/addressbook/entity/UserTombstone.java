@@ -0,0 +1,30 @@
+package com.gevernova.addressbook.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// A deleted user, kept so delta sync clients learn about the deletion (GET /api/users/changes)
+@Entity
+@Table(name = "user_tombstone",
+        indexes = @Index(name = "idx_user_tombstone_version_id", columnList = "changeVersion, userId")) // Delta keyset
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTombstone {
+
+    @Id
+    private Long userId;
+
+    private long changeVersion;
+
+    private Instant deletedAt;
+}
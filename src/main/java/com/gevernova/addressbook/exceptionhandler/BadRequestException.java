@@ -0,0 +1,7 @@
+package com.gevernova.addressbook.exceptionhandler;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
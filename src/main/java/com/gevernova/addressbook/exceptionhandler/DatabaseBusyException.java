@@ -0,0 +1,7 @@
+package com.gevernova.addressbook.exceptionhandler;
+
+public class DatabaseBusyException extends RuntimeException {
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.gevernova.addressbook.exceptionhandler;
+
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+}
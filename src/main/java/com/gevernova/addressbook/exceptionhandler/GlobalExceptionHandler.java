@@ -1,12 +1,19 @@
 package com.gevernova.addressbook.exceptionhandler;
 
+import com.gevernova.addressbook.entity.User;
 import lombok.Getter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -44,6 +51,99 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    // Handles BadRequestException (e.g., malformed pagination cursor) and returns a 400 Bad Request
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorDetails> handleBadRequestException(BadRequestException badRequestException, WebRequest request) {
+        logger.warn("BadRequestException: {}. Request URI: {}", badRequestException.getMessage(), request.getDescription(false));
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                badRequestException.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    // Handles DuplicateEmailException (email taken by another user) and returns a 409 Conflict
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ErrorDetails> handleDuplicateEmailException(DuplicateEmailException duplicateEmailException, WebRequest request) {
+        logger.warn("DuplicateEmailException: {}. Request URI: {}", duplicateEmailException.getMessage(), request.getDescription(false));
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                duplicateEmailException.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    // Two writers that passed the duplicate check with the same email: the unique index stops the second one
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorDetails> handleDataIntegrityViolationException(DataIntegrityViolationException ex, WebRequest request) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(User.EMAIL_KEY_CONSTRAINT)) {
+                return handleDuplicateEmailException(new DuplicateEmailException("A user with this email already exists."), request);
+            }
+        }
+        return handleGlobalException(ex, request);
+    }
+
+    // A query parameter that doesn't convert (e.g. ids=1,abc) is a client error, not a 500
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorDetails> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex, WebRequest request) {
+        return handleBadRequestException(new BadRequestException("Invalid value for '" + ex.getName() + "': " + ex.getValue()), request);
+    }
+
+    // Handles DatabaseBusyException (all connection permits taken) and returns a 503 with Retry-After
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<ErrorDetails> handleDatabaseBusyException(DatabaseBusyException databaseBusyException, WebRequest request) {
+        logger.warn("DatabaseBusyException: {}. Request URI: {}", databaseBusyException.getMessage(), request.getDescription(false));
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                databaseBusyException.getMessage(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
+    // Handles PasswordHashingBusyException (password hashing queue full) and returns a 503 with Retry-After
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorDetails> handlePasswordHashingBusyException(PasswordHashingBusyException passwordHashingBusyException, WebRequest request) {
+        logger.warn("PasswordHashingBusyException: {}. Request URI: {}", passwordHashingBusyException.getMessage(), request.getDescription(false));
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                passwordHashingBusyException.getMessage(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
+    // A transaction that could not get its connection arrives wrapped; unwrap a DatabaseBusyException cause
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorDetails> handleCannotCreateTransactionException(CannotCreateTransactionException ex, WebRequest request) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseBusyException databaseBusyException) {
+                return handleDatabaseBusyException(databaseBusyException, request);
+            }
+        }
+        return handleGlobalException(ex, request);
+    }
+
+    // Handles SqlBudgetExceededException (reject mode of the SQL budget guard): a query regression, so a 500
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<ErrorDetails> handleSqlBudgetExceededException(SqlBudgetExceededException sqlBudgetExceededException, WebRequest request) {
+        logger.error("SqlBudgetExceededException: {}. Request URI: {}", sqlBudgetExceededException.getMessage(), request.getDescription(false));
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                sqlBudgetExceededException.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     // Handles validation errors (e.g., @NotBlank, @Email) and returns a 400 Bad Request
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -57,6 +157,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    // The client of a stream (SSE change stream, export) went away: nothing can be written back, so no body
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleAsyncRequestNotUsableException(AsyncRequestNotUsableException ex, WebRequest request) {
+        logger.debug("Client disconnected: {}. Request URI: {}", ex.getMessage(), request.getDescription(false));
+    }
+
     // Handles all other unhandled exceptions and returns a 500 Internal Server Error
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDetails> handleGlobalException(Exception ex, WebRequest request) {
@@ -0,0 +1,7 @@
+package com.gevernova.addressbook.exceptionhandler;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
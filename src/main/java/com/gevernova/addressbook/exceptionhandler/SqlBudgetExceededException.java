@@ -0,0 +1,7 @@
+package com.gevernova.addressbook.exceptionhandler;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -7,11 +7,13 @@ import com.gevernova.addressbook.dto.UserResponseDTO;
 import com.gevernova.addressbook.entity.Address;
 import com.gevernova.addressbook.entity.User;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
+// The single entity <-> DTO mapping layer. Hand-written field copies (no reflection), lists presized
+// to their final length, plain loops instead of Optional/stream pipelines, and tag lists shared rather
+// than copied; the response DTOs are serialized and discarded, so nothing mutates them.
 public class UserMapper {
 
     // Converts User entity to UserResponseDTO
@@ -26,15 +28,28 @@ public class UserMapper {
         dto.setLastName(user.getLastName());
         dto.setPhoneNumber(user.getPhoneNumber());
         dto.setEmail(user.getEmail());
+        dto.setAddresses(convertToAddressDTOs(user.getAddresses())); // Map addresses from entity to DTO list
+        return dto;
+    }
 
-        // Map addresses from entity to DTO list
-        dto.setAddresses(Optional.ofNullable(user.getAddresses())
-                .orElse(Collections.emptyList())
-                .stream()
-                .map(UserMapper::convertToAddressDTO) // Use helper for Address mapping
-                .collect(Collectors.toList()));
+    // Converts a page of users, e.g. for the list and search endpoints
+    public static List<UserResponseDTO> convertToUserDTOs(List<User> users) {
+        List<UserResponseDTO> dtos = new ArrayList<>(users.size());
+        for (User user : users) {
+            dtos.add(convertToUserDTO(user));
+        }
+        return dtos;
+    }
 
-        return dto;
+    public static List<AddressResponseDTO> convertToAddressDTOs(List<Address> addresses) {
+        if (addresses == null || addresses.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        List<AddressResponseDTO> dtos = new ArrayList<>(addresses.size());
+        for (Address address : addresses) {
+            dtos.add(convertToAddressDTO(address));
+        }
+        return dtos;
     }
 
     // Converts UserRequestDTO to User entity
@@ -51,17 +66,19 @@ public class UserMapper {
         user.setEmail(userRequestDTO.getEmail());
 
         // Map addresses from DTO to entity list
-        user.setAddresses(Optional.ofNullable(userRequestDTO.getAddresses())
-                .orElse(Collections.emptyList())
-                .stream()
-                .map(UserMapper::convertToAddressEntity) // Use helper for Address mapping
-                .collect(Collectors.toList()));
-
+        List<AddressRequestDTO> addressRequests = userRequestDTO.getAddresses();
+        List<Address> addresses = new ArrayList<>(addressRequests == null ? 0 : addressRequests.size());
+        if (addressRequests != null) {
+            for (AddressRequestDTO addressRequestDTO : addressRequests) {
+                addresses.add(convertToAddressEntity(addressRequestDTO));
+            }
+        }
+        user.setAddresses(addresses);
         return user;
     }
 
     // Helper method: Converts Address entity to AddressResponseDTO
-    private static AddressResponseDTO convertToAddressDTO(Address address) {
+    public static AddressResponseDTO convertToAddressDTO(Address address) {
         if (address == null) {
             return null;
         }
@@ -77,6 +94,36 @@ public class UserMapper {
         return dto;
     }
 
+    // Applies an AddressRequestDTO to an existing (managed) Address in place. Setting an unchanged value
+    // is not dirty; tags are only replaced when they differ, since replacing the bag rewrites every tag row.
+    public static void updateAddressEntity(Address address, AddressRequestDTO addressRequestDTO) {
+        address.setStreet(addressRequestDTO.getStreet());
+        address.setAddressLine2(addressRequestDTO.getAddressLineTwo());
+        address.setCity(addressRequestDTO.getCity());
+        address.setState(addressRequestDTO.getState());
+        address.setZipCode(addressRequestDTO.getZipCode());
+        address.setCountry(addressRequestDTO.getCountry());
+
+        List<String> newTags = addressRequestDTO.getTags() == null ? new ArrayList<>(0) : addressRequestDTO.getTags();
+        if (!sameTags(address.getTags(), newTags)) {
+            address.setTags(newTags); // The request list is not used afterwards, so the entity can own it
+        }
+    }
+
+    // Compares element-wise: a Hibernate PersistentBag does not implement List.equals
+    private static boolean sameTags(List<String> currentTags, List<String> newTags) {
+        int size = currentTags == null ? 0 : currentTags.size();
+        if (size != newTags.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(currentTags.get(i), newTags.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Helper method: Converts AddressRequestDTO to Address entity
     public static Address convertToAddressEntity(AddressRequestDTO addressRequestDTO) {
         if (addressRequestDTO == null) {
@@ -0,0 +1,13 @@
+package com.gevernova.addressbook.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate calls this once for every SQL statement it prepares; the SQL is passed through untouched
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryStats.statementPrepared();
+        return sql;
+    }
+}
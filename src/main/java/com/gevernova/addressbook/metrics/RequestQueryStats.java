@@ -0,0 +1,56 @@
+package com.gevernova.addressbook.metrics;
+
+import com.gevernova.addressbook.exceptionhandler.SqlBudgetExceededException;
+
+// Per-thread SQL statement and entity-load counters for the request being served, plus the statement budget
+// to enforce while it runs (see SqlBudgetInterceptor). A plain ThreadLocal of an int[] keeps the hot path
+// (one increment per statement / loaded entity) allocation-free.
+public final class RequestQueryStats {
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+    private static final int ENFORCED_BUDGET = 2;
+    private static final int NO_BUDGET = -1;
+
+    private static final ThreadLocal<int[]> COUNTERS = ThreadLocal.withInitial(() -> new int[]{0, 0, NO_BUDGET});
+
+    private RequestQueryStats() {
+    }
+
+    public static void reset() {
+        int[] counters = COUNTERS.get();
+        counters[STATEMENTS] = 0;
+        counters[ENTITY_LOADS] = 0;
+    }
+
+    public static void statementPrepared() {
+        int[] counters = COUNTERS.get();
+        counters[STATEMENTS]++;
+        if (counters[ENFORCED_BUDGET] != NO_BUDGET && counters[STATEMENTS] > counters[ENFORCED_BUDGET]) {
+            int budget = counters[ENFORCED_BUDGET];
+            counters[ENFORCED_BUDGET] = NO_BUDGET; // Throw once; error handling may still need the database
+            throw new SqlBudgetExceededException("Request exceeded its budget of " + budget + " SQL statements.");
+        }
+    }
+
+    // Fails the statement that goes over the budget (reject mode)
+    public static void enforceBudget(int budget) {
+        COUNTERS.get()[ENFORCED_BUDGET] = budget;
+    }
+
+    public static void clearBudget() {
+        COUNTERS.get()[ENFORCED_BUDGET] = NO_BUDGET;
+    }
+
+    public static void entityLoaded() {
+        COUNTERS.get()[ENTITY_LOADS]++;
+    }
+
+    public static int statements() {
+        return COUNTERS.get()[STATEMENTS];
+    }
+
+    public static int entityLoads() {
+        return COUNTERS.get()[ENTITY_LOADS];
+    }
+}
@@ -0,0 +1,83 @@
+package com.gevernova.addressbook.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Checks the statements counted by RequestQueryStats against the budget configured for the matched endpoint.
+// Catches N+1 regressions (e.g. lazy tags loaded per address) as soon as a request goes over its budget.
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetInterceptor.class);
+    private static final String BUDGET_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".budget";
+    private static final String ENDPOINT_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".endpoint";
+
+    private final SqlBudgetProperties.Mode mode;
+    private final Map<String, Integer> budgets;
+    private final MeterRegistry meterRegistry;
+
+    public SqlBudgetInterceptor(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.mode = properties.getMode();
+        this.budgets = parseBudgets(properties);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        String endpoint = request.getMethod() + " " + pattern;
+        Integer budget = budgets.get(endpoint);
+        if (budget != null) {
+            request.setAttribute(BUDGET_ATTRIBUTE, budget);
+            request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+            if (mode == SqlBudgetProperties.Mode.REJECT) {
+                RequestQueryStats.enforceBudget(budget);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestQueryStats.clearBudget();
+        Integer budget = (Integer) request.getAttribute(BUDGET_ATTRIBUTE);
+        int statements = RequestQueryStats.statements();
+        if (budget == null || statements <= budget) {
+            return;
+        }
+        String endpoint = (String) request.getAttribute(ENDPOINT_ATTRIBUTE);
+        Counter.builder("addressbook.sql.budget.violations")
+                .description("Requests that prepared more SQL statements than their endpoint's budget")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+        if (mode != SqlBudgetProperties.Mode.COUNT) {
+            logger.warn("SQL budget exceeded: {} prepared {} statements (budget {}). Request URI: {}",
+                    endpoint, statements, budget, request.getRequestURI());
+        }
+    }
+
+    private static Map<String, Integer> parseBudgets(SqlBudgetProperties properties) {
+        Map<String, Integer> budgets = new HashMap<>();
+        for (String entry : properties.getBudgets()) {
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid SQL budget '" + entry + "', expected 'METHOD /uri/template=max'.");
+            }
+            budgets.put(entry.substring(0, separator).trim().replaceAll("\\s+", " "),
+                    Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,27 @@
+package com.gevernova.addressbook.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// addressbook.sql-budget.*: per-endpoint SQL statement budgets, e.g.
+//   addressbook.sql-budget.budgets[0]=GET /api/users/{id}=3
+// (method, URI template as in http.server.requests, then the maximum number of statements)
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "addressbook.sql-budget")
+public class SqlBudgetProperties {
+
+    public enum Mode {
+        COUNT,  // only count violations (addressbook.sql.budget.violations)
+        LOG,    // count and log a warning
+        REJECT  // count and fail the statement that goes over the budget
+    }
+
+    private Mode mode = Mode.COUNT;
+
+    private List<String> budgets = new ArrayList<>();
+}
@@ -0,0 +1,63 @@
+package com.gevernova.addressbook.pagination;
+
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor: the sort key name, the sort value of the last row and its id.
+// Clients only ever see the Base64 (URL-safe) form returned in ResponseDTO.next.
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+    private static final char SEPARATOR = '|';
+
+    private final String sortKey;
+    private final Long id;
+    private final String value;
+
+    public KeysetCursor(String sortKey, Long id, String value) {
+        this.sortKey = sortKey;
+        this.id = id;
+        this.value = value == null ? "" : value;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + sortKey + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decodes a cursor previously produced by encode(); null or blank means "first page".
+    public static KeysetCursor decode(String token, String expectedSortKey) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            // The value goes last so it may itself contain the separator
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Malformed pagination cursor.");
+            }
+            if (!parts[1].equals(expectedSortKey)) {
+                throw new BadRequestException("Pagination cursor was issued for sort '" + parts[1]
+                        + "' and cannot be used with sort '" + expectedSortKey + "'.");
+            }
+            return new KeysetCursor(parts[1], Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) { // Also covers NumberFormatException
+            throw new BadRequestException("Malformed pagination cursor.");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.gevernova.addressbook.pagination;
+
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+
+import java.util.Locale;
+
+// Stable sort orders supported by the keyset-paginated user listings.
+// Every order is tie-broken on the user id so that cursors are unambiguous.
+public enum UserSort {
+    ID("id"),
+    LAST_NAME("lastName"),
+    CITY("city"); // City of the user's primary (first) address
+
+    private final String param;
+
+    UserSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static UserSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        for (UserSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value.trim()) || sort.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                return sort;
+            }
+        }
+        throw new BadRequestException("Unsupported sort '" + value + "'. Supported values are: id, lastName, city.");
+    }
+}
@@ -1,30 +1,91 @@
 package com.gevernova.addressbook.repository;
 
 import com.gevernova.addressbook.entity.Address;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository // Designates this interface as a Spring Data JPA repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
     // JpaRepository inherently provides methods such as save(), findById(), findAll(), and deleteById().
+    // User searches by address city/state live in UserSearchRepository so they can be keyset-paginated per user.
+    // HINT_CACHEABLE queries use the Hibernate query cache, which is invalidated by any write to their tables.
+    // HINT_READ_ONLY queries only feed responses: their entities are loaded without a dirty-checking snapshot.
 
-    @Query(value = "SELECT * FROM address WHERE LOWER(city) LIKE LOWER(CONCAT('%', :city, '%'))", nativeQuery = true)
-    List<Address> findByCity(@Param("city") String city);
+    // Keyset pages of all addresses sorted by city; backed by the (city, id) index.
+    // Only the page size of the Pageable is used, the cursor replaces the offset.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM Address a ORDER BY a.city ASC, a.id ASC")
+    List<Address> findFirstPageSortedByCity(Pageable pageable);
 
-    @Query(value = "SELECT * FROM address WHERE LOWER(state) LIKE LOWER(CONCAT('%', :state, '%'))", nativeQuery = true)
-    List<Address> findByState(@Param("state") String state);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM Address a WHERE a.city > :city OR (a.city = :city AND a.id > :id) ORDER BY a.city ASC, a.id ASC")
+    List<Address> findPageSortedByCityAfter(@Param("city") String city, @Param("id") Long id, Pageable pageable);
 
-    @Query(value = "SELECT * FROM address WHERE LOWER(city) LIKE LOWER(CONCAT('%', :city, '%')) AND LOWER(state) LIKE LOWER(CONCAT('%', :state, '%'))", nativeQuery = true)
-    List<Address> findByCityAndState(@Param("city") String city, @Param("state") String state);
+    // Tags cannot be join-fetched together with User.addresses (two bags), so they are initialized
+    // in a second statement for all addresses of the given users at once. Not read-only: updates merge into them.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT a FROM Address a LEFT JOIN FETCH a.tags WHERE a.user.id IN :userIds")
+    List<Address> fetchTagsByUserIdIn(@Param("userIds") Collection<Long> userIds);
 
-    @Query(value = "SELECT * FROM address WHERE LOWER(city) LIKE LOWER(CONCAT('%', :city, '%')) OR LOWER(state) LIKE LOWER(CONCAT('%', :state, '%'))", nativeQuery = true)
-    List<Address> findByCityOrState(@Param("city") String city, @Param("state") String state);
+    // Rows written before the normalized search keys existed; see AddressSearchKeyBackfill
+    List<Address> findTop500ByCityKeyIsNullAndCityIsNotNullOrCountryKeyIsNullAndCountryIsNotNull();
 
-    @Query(value = "SELECT * FROM address ORDER BY city ASC", nativeQuery = true)
-    List<Address> findAllSortedByCityNative();
+    // Users per bucket, from scratch; FacetCounter reconciles the incrementally kept counts against these
+    @Query("SELECT new com.gevernova.addressbook.repository.FacetBucketCount('', '', a.stateKey, MIN(a.state), COUNT(DISTINCT a.user.id))"
+            + " FROM Address a WHERE a.stateKey <> '' GROUP BY a.stateKey")
+    List<FacetBucketCount> countUsersByState();
 
+    @Query("SELECT new com.gevernova.addressbook.repository.FacetBucketCount(COALESCE(a.stateKey, ''), MIN(a.state), a.cityKey,"
+            + " MIN(a.city), COUNT(DISTINCT a.user.id)) FROM Address a WHERE a.cityKey <> '' GROUP BY COALESCE(a.stateKey, ''), a.cityKey")
+    List<FacetBucketCount> countUsersByCity();
+
+    @Query("SELECT new com.gevernova.addressbook.repository.FacetBucketCount('', '', a.countryKey, MIN(a.country), COUNT(DISTINCT a.user.id))"
+            + " FROM Address a WHERE a.countryKey <> '' GROUP BY a.countryKey")
+    List<FacetBucketCount> countUsersByCountry();
+
+    // Tags have no normalized column: grouped as written, and folded by the caller
+    @Query("SELECT new com.gevernova.addressbook.repository.FacetBucketCount('', '', t, t, COUNT(DISTINCT a.user.id))"
+            + " FROM Address a JOIN a.tags t GROUP BY t")
+    List<FacetBucketCount> countUsersByTag();
+
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM Address a JOIN a.tags t WHERE t IN :tags")
+    long countUsersWithAnyTag(@Param("tags") Collection<String> tags);
+
+    // Users in one bucket, for re-checking a drifted bucket without counting all of them again
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM Address a WHERE a.stateKey = :stateKey")
+    long countUsersInState(@Param("stateKey") String stateKey);
+
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM Address a WHERE a.cityKey = :cityKey AND COALESCE(a.stateKey, '') = :stateKey")
+    long countUsersInCity(@Param("stateKey") String stateKey, @Param("cityKey") String cityKey);
+
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM Address a WHERE a.countryKey = :countryKey")
+    long countUsersInCountry(@Param("countryKey") String countryKey);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT DISTINCT a FROM Address a LEFT JOIN FETCH a.tags WHERE a.id IN :ids")
+    List<Address> fetchTagsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based bulk delete (UserBulkDeleteServiceImpl): what the caches, the facet counts and the index need
+    // to know about the users being deleted, without loading them
+    @Query("SELECT new com.gevernova.addressbook.repository.AddressTagRow(a.user.id, a.id, a.city, a.state, a.zipCode, a.country, t)"
+            + " FROM Address a LEFT JOIN a.tags t WHERE a.user.id IN :userIds")
+    List<AddressTagRow> findTagRowsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // One statement for the address_tags rows (Hibernate clears element collection tables first) and one for the addresses
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.user.id IN :userIds")
+    int deleteAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
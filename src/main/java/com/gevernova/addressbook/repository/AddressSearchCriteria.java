@@ -0,0 +1,72 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.util.TextNormalizer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+// City/state/zip predicate applied to a user's addresses by the user search queries.
+// Terms are normalized like Address.cityKey/stateKey/zipKey; a null or blank term means "no restriction".
+@Getter
+@EqualsAndHashCode // Part of the AddressSearchCache key
+public class AddressSearchCriteria {
+
+    public enum Operator { AND, OR }
+
+    private final String city;
+    private final String state;
+    private final String zipCode;
+    private final Operator operator;
+    private final MatchMode matchMode;
+
+    private AddressSearchCriteria(String city, String state, String zipCode, Operator operator, MatchMode matchMode) {
+        this.city = normalize(city);
+        this.state = normalize(state);
+        this.zipCode = normalize(zipCode);
+        this.operator = operator;
+        this.matchMode = matchMode == null ? MatchMode.CONTAINS : matchMode;
+    }
+
+    public static AddressSearchCriteria city(String city, MatchMode matchMode) {
+        return new AddressSearchCriteria(city, null, null, Operator.AND, matchMode);
+    }
+
+    public static AddressSearchCriteria state(String state, MatchMode matchMode) {
+        return new AddressSearchCriteria(null, state, null, Operator.AND, matchMode);
+    }
+
+    public static AddressSearchCriteria cityAndState(String city, String state, MatchMode matchMode) {
+        return new AddressSearchCriteria(city, state, null, Operator.AND, matchMode);
+    }
+
+    public static AddressSearchCriteria cityOrState(String city, String state, MatchMode matchMode) {
+        return new AddressSearchCriteria(city, state, null, Operator.OR, matchMode);
+    }
+
+    public static AddressSearchCriteria zipCode(String zipCode, MatchMode matchMode) {
+        return new AddressSearchCriteria(null, null, zipCode, Operator.AND, matchMode);
+    }
+
+    public boolean isEmpty() {
+        return city == null && state == null && zipCode == null;
+    }
+
+    // In-memory counterpart of the SQL predicate (UserSearchRepositoryImpl.addressPredicate), applied to the
+    // normalized keys of a single address: would a user with this address be part of the result?
+    public boolean matches(String cityKey, String stateKey, String zipKey) {
+        boolean locationMatches;
+        if (city == null && state == null) {
+            locationMatches = true;
+        } else if (operator == Operator.OR) {
+            locationMatches = (city != null && matchMode.matches(cityKey, city))
+                    || (state != null && matchMode.matches(stateKey, state));
+        } else {
+            locationMatches = (city == null || matchMode.matches(cityKey, city))
+                    && (state == null || matchMode.matches(stateKey, state));
+        }
+        return locationMatches && (zipCode == null || matchMode.matches(zipKey, zipCode));
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : TextNormalizer.normalize(value);
+    }
+}
@@ -0,0 +1,6 @@
+package com.gevernova.addressbook.repository;
+
+// One address of a user with one of its tags (null for an address without tags), read as plain columns
+// where loading the entities would cost more than the work itself (set-based bulk delete)
+public record AddressTagRow(Long userId, Long addressId, String city, String state, String zipCode, String country, String tag) {
+}
@@ -0,0 +1,5 @@
+package com.gevernova.addressbook.repository;
+
+// Users per facet bucket as counted by a GROUP BY over the addresses (see FacetCounter)
+public record FacetBucketCount(String parentKey, String parentLabel, String bucketKey, String label, long users) {
+}
@@ -0,0 +1,28 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.entity.FacetCount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FacetCountRepository extends JpaRepository<FacetCount, FacetCount.Key> {
+
+    // Largest buckets of a dimension first; a null parentKey lists the cities of every state
+    @Query("SELECT f FROM FacetCount f WHERE f.dimension = :dimension AND (:parentKey IS NULL OR f.parentKey = :parentKey)"
+            + " AND f.userCount > 0 ORDER BY f.userCount DESC, f.bucketKey ASC")
+    List<FacetCount> findLargest(@Param("dimension") FacetCount.Dimension dimension, @Param("parentKey") String parentKey,
+                                 Pageable pageable);
+
+    // Relative update, so that it composes with whatever other transactions did to the bucket
+    @Modifying
+    @Query("UPDATE FacetCount f SET f.userCount = f.userCount + :delta"
+            + " WHERE f.dimension = :dimension AND f.parentKey = :parentKey AND f.bucketKey = :bucketKey")
+    int adjust(@Param("dimension") FacetCount.Dimension dimension, @Param("parentKey") String parentKey,
+               @Param("bucketKey") String bucketKey, @Param("delta") long delta);
+}
@@ -0,0 +1,49 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+
+// How a search term is compared with the normalized address columns.
+// EXACT and PREFIX can use the column index; CONTAINS has a leading wildcard and scans.
+public enum MatchMode {
+    EXACT,
+    PREFIX,
+    CONTAINS;
+
+    public static MatchMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return CONTAINS; // Historical behaviour of search-by-address
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported match mode '" + value + "'. Supported values are: exact, prefix, contains.");
+        }
+    }
+
+    // Turns a normalized term into the bind value for "column = :term" or "column LIKE :term ESCAPE '!'"
+    public String bindValue(String normalizedTerm) {
+        if (this == EXACT) {
+            return normalizedTerm;
+        }
+        String escaped = normalizedTerm.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return this == PREFIX ? escaped + "%" : "%" + escaped + "%";
+    }
+
+    // Same comparison as predicate(...), in memory; the key is a normalized column value
+    public boolean matches(String key, String normalizedTerm) {
+        if (key == null) {
+            return false;
+        }
+        return switch (this) {
+            case EXACT -> key.equals(normalizedTerm);
+            case PREFIX -> key.startsWith(normalizedTerm);
+            case CONTAINS -> key.contains(normalizedTerm);
+        };
+    }
+
+    public String predicate(String column, String parameter) {
+        return this == EXACT
+                ? column + " = :" + parameter
+                : column + " LIKE :" + parameter + " ESCAPE '!'";
+    }
+}
@@ -0,0 +1,29 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Events after (version, id) in commit order; backed by the (changeVersion, id) index
+    @Query("SELECT e FROM OutboxEvent e WHERE e.changeVersion > :version OR (e.changeVersion = :version AND e.id > :id)"
+            + " ORDER BY e.changeVersion ASC, e.id ASC")
+    List<OutboxEvent> findAfter(@Param("version") long version, @Param("id") long id, Pageable pageable);
+
+    // The newest event, where a relay starts
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.changeVersion DESC, e.id DESC")
+    List<OutboxEvent> findNewest(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.occurredAt < :cutoff")
+    int deleteOccurredBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,108 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.pagination.UserSort;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Scalar user fields a list response is reduced to (?fields=... or ?view=summary). The projection queries select
+// just these columns, so no User entity is loaded and no address or tag row is read.
+public final class UserFields {
+
+    public enum Field {
+        ID("id"),
+        FIRST_NAME("firstName"),
+        LAST_NAME("lastName"),
+        FULL_NAME("fullName"), // Derived from firstName and lastName
+        EMAIL("email"),
+        PHONE_NUMBER("phoneNumber");
+
+        private final String param;
+
+        Field(String param) {
+            this.param = param;
+        }
+
+        public String getParam() {
+            return param;
+        }
+    }
+
+    private static final Set<Field> SUMMARY = EnumSet.of(Field.ID, Field.FULL_NAME, Field.EMAIL);
+
+    private final Set<Field> fields;
+
+    private UserFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    // Returns null for the full representation: neither parameter given, or view=full
+    public static UserFields fromParams(String view, String fields) {
+        boolean hasView = view != null && !view.isBlank();
+        boolean hasFields = fields != null && !fields.isBlank();
+        if (hasView && hasFields) {
+            throw new BadRequestException("Use either 'view' or 'fields', not both.");
+        }
+        if (hasFields) {
+            return new UserFields(parseFields(fields));
+        }
+        if (!hasView || view.trim().equalsIgnoreCase("full")) {
+            return null;
+        }
+        if (view.trim().equalsIgnoreCase("summary")) {
+            return new UserFields(SUMMARY);
+        }
+        throw new BadRequestException("Unsupported view '" + view + "'. Supported values are: full, summary.");
+    }
+
+    private static Set<Field> parseFields(String value) {
+        Set<Field> parsed = EnumSet.of(Field.ID); // Always returned, so that clients can fetch the rest
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(fieldOf(trimmed));
+        }
+        return parsed;
+    }
+
+    private static Field fieldOf(String name) {
+        for (Field field : Field.values()) {
+            if (field.param.equalsIgnoreCase(name) || field.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return field;
+            }
+        }
+        throw new BadRequestException("Unsupported field '" + name
+                + "'. Supported fields are: id, firstName, lastName, fullName, email, phoneNumber (addresses need the full view).");
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    // User attributes the projection query selects: the requested columns plus the sort column for the cursor
+    public Set<String> selectedAttributes(UserSort sort) {
+        Set<String> attributes = new LinkedHashSet<>();
+        attributes.add("id");
+        if (includes(Field.FIRST_NAME) || includes(Field.FULL_NAME)) {
+            attributes.add("firstName");
+        }
+        if (includes(Field.LAST_NAME) || includes(Field.FULL_NAME) || sort == UserSort.LAST_NAME) {
+            attributes.add("lastName");
+        }
+        if (includes(Field.EMAIL)) {
+            attributes.add("email");
+        }
+        if (includes(Field.PHONE_NUMBER)) {
+            attributes.add("phoneNumber");
+        }
+        if (sort == UserSort.CITY) {
+            attributes.add("primaryCity");
+        }
+        return attributes;
+    }
+}
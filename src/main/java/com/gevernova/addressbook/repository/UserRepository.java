@@ -1,9 +1,105 @@
 package com.gevernova.addressbook.repository;
 
 import com.gevernova.addressbook.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>{
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository {
+
+    // Initializes the addresses of many users in one statement. Users already in the persistence context
+    // (e.g. a page returned by findUserPage) are reused, so the caller can keep its own ordering.
+    // Query cache: repeated pages resolve ids and addresses from the second-level cache.
+    // Read-only: only used to build responses, so no dirty-checking snapshot is kept.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.addresses WHERE u.id IN :ids")
+    List<User> findAllWithAddressesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Locks the user's row for the rest of a write transaction (see UserChangeTracker): load it with this
+    // before its addresses, so that what the write reads can't change until it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findAndLockById(@Param("id") Long id);
+
+    // Also loads the user for updates and deletes, so not read-only
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.addresses WHERE u.id = :id")
+    Optional<User> findWithAddressesById(@Param("id") Long id);
+
+    // Delta sync: users written after (version, id) in change order; backed by the (changeVersion, id) index
+    @Query("SELECT new com.gevernova.addressbook.repository.VersionedId(u.changeVersion, u.id) FROM User u"
+            + " WHERE u.changeVersion > :version OR (u.changeVersion = :version AND u.id > :id)"
+            + " ORDER BY u.changeVersion ASC, u.id ASC")
+    List<VersionedId> findChangedAfter(@Param("version") long version, @Param("id") long id, Pageable pageable);
+
+    // Lookup by normalized email; backed by the unique email key index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.addresses WHERE u.emailKey = :emailKey")
+    Optional<User> findWithAddressesByEmailKey(@Param("emailKey") String emailKey);
+
+    // Stored hash without loading (or locking) the user, so updates can hash before they take the row lock
+    @Query("SELECT u.password FROM User u WHERE u.id = :id")
+    Optional<String> findPasswordById(@Param("id") Long id);
+
+    boolean existsByEmailKey(String emailKey);
+
+    boolean existsByEmailKeyAndIdNot(String emailKey, Long id);
+
+    // All email keys, for rebuilding EmailBloomFilter; read in fetch-size chunks, never held in memory
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.emailKey FROM User u WHERE u.emailKey IS NOT NULL")
+    Stream<String> streamEmailKeys();
+
+    @Query("SELECT u.emailKey FROM User u WHERE u.id IN :ids AND u.emailKey IS NOT NULL")
+    List<String> findEmailKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Rows written before User.emailKey existed (ddl-auto=update adds it as NULL); same form as TextNormalizer.normalizeEmail
+    @Modifying
+    @Query("UPDATE User u SET u.emailKey = LOWER(TRIM(u.email)) WHERE u.emailKey IS NULL")
+    int backfillEmailKeys();
+
+    // Rows written before User.primaryCity existed, which ddl-auto=update gave the column default ''. Same value
+    // as User.syncPrimaryCity, the city of the first (lowest id) address. Only rows still at the default are read,
+    // through the primaryCity index, so once filled only users without a city are probed again on startup.
+    @Modifying
+    @Query("UPDATE User u SET u.primaryCity = (SELECT a.city FROM Address a WHERE a.user = u"
+            + " AND a.id = (SELECT MIN(first.id) FROM Address first WHERE first.user = u))"
+            + " WHERE u.primaryCity = '' AND EXISTS (SELECT 1 FROM Address a WHERE a.user = u"
+            + " AND a.id = (SELECT MIN(first.id) FROM Address first WHERE first.user = u)"
+            + " AND a.city IS NOT NULL AND a.city <> '')")
+    int backfillPrimaryCities();
+
+    // Users a bulk delete selects by filter, in id chunks; a null filter value matches every user.
+    // The rows stay locked until the chunk commits, like the user of a single write.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId"
+            + " AND (:stateKey IS NULL OR EXISTS (SELECT 1 FROM Address a WHERE a.user = u AND a.stateKey = :stateKey))"
+            + " AND (:tag IS NULL OR EXISTS (SELECT 1 FROM Address a JOIN a.tags t WHERE a.user = u AND t = :tag))"
+            + " ORDER BY u.id ASC")
+    List<Long> findIdsMatching(@Param("afterId") long afterId, @Param("stateKey") String stateKey, @Param("tag") String tag,
+                               Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Addresses and their tags have to be deleted first (AddressRepository.deleteAllByUserIdIn)
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.pagination.KeysetCursor;
+import com.gevernova.addressbook.pagination.UserSort;
+import jakarta.persistence.Tuple;
+
+import java.util.List;
+
+// Custom fragment of UserRepository for keyset-paginated listing and address search.
+public interface UserSearchRepository {
+
+    // Returns up to 'limit' users ordered by 'sort' (ties broken on id) that come strictly after 'after'.
+    // A null criteria lists all users; a null cursor starts from the first page.
+    List<User> findUserPage(AddressSearchCriteria criteria, UserSort sort, KeysetCursor after, int limit);
+
+    // Same page as findUserPage, but only the columns of 'fields' (see UserFields.selectedAttributes), as tuples
+    // aliased by attribute name: one statement and no entities in the persistence context.
+    List<Tuple> findUserProjectionPage(AddressSearchCriteria criteria, UserSort sort, KeysetCursor after, int limit, UserFields fields);
+}
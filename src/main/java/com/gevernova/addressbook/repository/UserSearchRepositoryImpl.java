@@ -0,0 +1,112 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.pagination.KeysetCursor;
+import com.gevernova.addressbook.pagination.UserSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+// Builds the keyset queries for UserSearchRepository. Pages are addressed by "(sort value, id) > cursor"
+// instead of OFFSET, so a deep page costs the same index range scan as the first one.
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<User> findUserPage(AddressSearchCriteria criteria, UserSort sort, KeysetCursor after, int limit) {
+        TypedQuery<User> query = createPageQuery("SELECT u", User.class, criteria, sort, after);
+        // Query cache: a repeated page resolves its users from the second-level cache without touching the database
+        query.setHint(HibernateHints.HINT_CACHEABLE, true);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true); // Pages only feed responses and exports
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findUserProjectionPage(AddressSearchCriteria criteria, UserSort sort, KeysetCursor after, int limit,
+                                              UserFields fields) {
+        StringJoiner select = new StringJoiner(", ", "SELECT ", "");
+        for (String attribute : fields.selectedAttributes(sort)) {
+            select.add("u." + attribute + " AS " + attribute);
+        }
+        return createPageQuery(select.toString(), Tuple.class, criteria, sort, after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Same filter, keyset condition and order for entity and projection pages; only the select list differs
+    private <T> TypedQuery<T> createPageQuery(String select, Class<T> resultType, AddressSearchCriteria criteria,
+                                              UserSort sort, KeysetCursor after) {
+        StringBuilder jpql = new StringBuilder(select).append(" FROM User u WHERE 1 = 1");
+
+        boolean filtered = criteria != null && !criteria.isEmpty();
+        if (filtered) {
+            // EXISTS keeps one row per user, however many of their addresses match
+            jpql.append(" AND EXISTS (SELECT a.id FROM Address a WHERE a.user = u AND (")
+                    .append(addressPredicate(criteria))
+                    .append("))");
+        }
+
+        if (after != null) {
+            switch (sort) {
+                case ID -> jpql.append(" AND u.id > :afterId");
+                case LAST_NAME -> jpql.append(" AND (u.lastName > :afterValue OR (u.lastName = :afterValue AND u.id > :afterId))");
+                case CITY -> jpql.append(" AND (u.primaryCity > :afterValue OR (u.primaryCity = :afterValue AND u.id > :afterId))");
+            }
+        }
+
+        switch (sort) {
+            case ID -> jpql.append(" ORDER BY u.id ASC");
+            case LAST_NAME -> jpql.append(" ORDER BY u.lastName ASC, u.id ASC");
+            case CITY -> jpql.append(" ORDER BY u.primaryCity ASC, u.id ASC");
+        }
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultType);
+        if (filtered) {
+            MatchMode matchMode = criteria.getMatchMode();
+            if (criteria.getCity() != null) {
+                query.setParameter("city", matchMode.bindValue(criteria.getCity()));
+            }
+            if (criteria.getState() != null) {
+                query.setParameter("state", matchMode.bindValue(criteria.getState()));
+            }
+            if (criteria.getZipCode() != null) {
+                query.setParameter("zipCode", matchMode.bindValue(criteria.getZipCode()));
+            }
+        }
+        if (after != null) {
+            query.setParameter("afterId", after.getId());
+            if (sort != UserSort.ID) {
+                query.setParameter("afterValue", after.getValue());
+            }
+        }
+        return query;
+    }
+
+    // Compares the pre-normalized, indexed key columns rather than LOWER(column), so exact and prefix
+    // matches are index range scans; only CONTAINS (leading wildcard) has to scan the key column.
+    private static String addressPredicate(AddressSearchCriteria criteria) {
+        MatchMode matchMode = criteria.getMatchMode();
+        List<String> predicates = new ArrayList<>(3);
+        if (criteria.getCity() != null) {
+            predicates.add(matchMode.predicate("a.cityKey", "city"));
+        }
+        if (criteria.getState() != null) {
+            predicates.add(matchMode.predicate("a.stateKey", "state"));
+        }
+        String locationPredicate = String.join(
+                criteria.getOperator() == AddressSearchCriteria.Operator.OR ? " OR " : " AND ", predicates);
+        if (criteria.getZipCode() == null) {
+            return locationPredicate;
+        }
+        String zipPredicate = matchMode.predicate("a.zipKey", "zipCode");
+        return predicates.isEmpty() ? zipPredicate : "(" + locationPredicate + ") AND " + zipPredicate;
+    }
+}
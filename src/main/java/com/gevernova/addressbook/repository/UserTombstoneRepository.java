@@ -0,0 +1,20 @@
+package com.gevernova.addressbook.repository;
+
+import com.gevernova.addressbook.entity.UserTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    // Deletions after (version, id) in change order; backed by the (changeVersion, userId) index
+    @Query("SELECT new com.gevernova.addressbook.repository.VersionedId(t.changeVersion, t.userId) FROM UserTombstone t"
+            + " WHERE t.changeVersion > :version OR (t.changeVersion = :version AND t.userId > :id)"
+            + " ORDER BY t.changeVersion ASC, t.userId ASC")
+    List<VersionedId> findDeletedAfter(@Param("version") long version, @Param("id") long id, Pageable pageable);
+}
@@ -0,0 +1,5 @@
+package com.gevernova.addressbook.repository;
+
+// A user id with the change version of its last write (or of its deletion), as listed by delta sync
+public record VersionedId(long version, Long id) {
+}
@@ -0,0 +1,20 @@
+package com.gevernova.addressbook.search;
+
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+// Registers the analyzers of the embedded full-text index (see User/Address @FullTextField).
+// Referenced from hibernate.search.backend.analysis.configurer in application.properties.
+public class AddressBookAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    // Same folding as TextNormalizer: "São Paulo" and "sao paulo" index to the same terms
+    public static final String FOLDING = "folding";
+
+    @Override
+    public void configure(LuceneAnalysisConfigurationContext context) {
+        context.analyzer(FOLDING).custom()
+                .tokenizer("standard")
+                .tokenFilter("lowercase")
+                .tokenFilter("asciiFolding");
+    }
+}
@@ -0,0 +1,32 @@
+package com.gevernova.addressbook.search;
+
+import com.gevernova.addressbook.service.UserSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Admin operation: POST /actuator/searchindex rebuilds the full-text index from the database. An actuator
+// endpoint rather than an API route, so it is only reachable where management endpoints are exposed
+// (management.endpoints.web.exposure.include; the dev profile exposes it, prod does not by default).
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexEndpoint.class);
+
+    private final UserSearchService userSearchService;
+
+    public SearchIndexEndpoint(UserSearchService userSearchService) {
+        this.userSearchService = userSearchService;
+    }
+
+    @WriteOperation
+    public Map<String, Long> rebuild() {
+        logger.info("Received request to rebuild the full-text search index.");
+        return Map.of("indexedUsers", userSearchService.rebuildIndex());
+    }
+}
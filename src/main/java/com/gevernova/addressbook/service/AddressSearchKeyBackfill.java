@@ -0,0 +1,50 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.repository.AddressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Fills Address.cityKey/stateKey/zipKey/countryKey for rows created before those columns existed
+// (ddl-auto=update adds them as NULL), so exact and prefix searches and the facet counts also see legacy data.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // Before FacetCounter counts over the keys
+public class AddressSearchKeyBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressSearchKeyBackfill.class);
+
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AddressSearchKeyBackfill(AddressRepository addressRepository, TransactionTemplate transactionTemplate) {
+        this.addressRepository = addressRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int total = 0;
+        int batch;
+        do {
+            // One short transaction per batch; the dirty addresses are flushed through @PreUpdate on commit
+            Integer updated = transactionTemplate.execute(status -> {
+                List<Address> addresses = addressRepository.findTop500ByCityKeyIsNullAndCityIsNotNullOrCountryKeyIsNullAndCountryIsNotNull();
+                addresses.forEach(Address::normalizeSearchKeys);
+                return addresses.size();
+            });
+            batch = updated == null ? 0 : updated;
+            total += batch;
+        } while (batch > 0);
+        if (total > 0) {
+            logger.info("Backfilled normalized search keys for {} addresses.", total);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import org.springframework.http.MediaType;
+
+// Output formats of the streaming address book export
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"), // One UserResponseDTO per line
+    CSV(new MediaType("text", "csv"), "csv");        // One line per (user, address), tags joined with '|'
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    ExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format '" + value + "'. Supported values are: ndjson, csv.");
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.entity.ChangeCounter;
+import com.gevernova.addressbook.entity.FacetCount;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.repository.AddressRepository;
+import com.gevernova.addressbook.repository.AddressTagRow;
+import com.gevernova.addressbook.repository.FacetBucketCount;
+import com.gevernova.addressbook.repository.FacetCountRepository;
+import com.gevernova.addressbook.util.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps the facet_count table behind GET /api/users/facets. Write transactions apply the difference between
+// their users' buckets before and after the change, just before commit (see UserChangeTracker) and under the
+// change counter lock, so the counts move in step with the data. A reconciliation recounts every bucket with
+// GROUP BY queries at startup and every addressbook.facets.reconcile-interval, and repairs drifted buckets
+// (e.g. after rows were changed directly in the database). The recount takes no lock; only the repair of
+// the buckets that differ does, briefly.
+@Component
+public class FacetCounter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetCounter.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final FacetCountRepository facetCountRepository;
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter repairs;
+
+    public FacetCounter(FacetCountRepository facetCountRepository, AddressRepository addressRepository,
+                        TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.facetCountRepository = facetCountRepository;
+        this.addressRepository = addressRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.repairs = Counter.builder("addressbook.facets.repairs")
+                .description("Facet buckets whose kept count differed from a recount")
+                .register(meterRegistry);
+    }
+
+    // The buckets a user counts in, each once however many of its addresses fall into it. The values are
+    // rows with a count of one that carry the labels, for buckets that don't exist yet.
+    public Map<FacetCount.Key, FacetCount> bucketsOf(User user) {
+        Map<FacetCount.Key, FacetCount> buckets = new HashMap<>();
+        if (user.getAddresses() == null) {
+            return buckets;
+        }
+        for (Address address : user.getAddresses()) {
+            addAddress(buckets, address.getState(), address.getCity(), address.getCountry(), address.getTags());
+        }
+        return buckets;
+    }
+
+    // Same as bucketsOf, per user, for addresses read as plain rows
+    public Map<Long, Map<FacetCount.Key, FacetCount>> bucketsOf(List<AddressTagRow> rows) {
+        Map<Long, Map<FacetCount.Key, FacetCount>> bucketsByUser = new HashMap<>();
+        for (AddressTagRow row : rows) {
+            addAddress(bucketsByUser.computeIfAbsent(row.userId(), id -> new HashMap<>()),
+                    row.state(), row.city(), row.country(), row.tag() == null ? List.of() : List.of(row.tag()));
+        }
+        return bucketsByUser;
+    }
+
+    private static void addAddress(Map<FacetCount.Key, FacetCount> buckets, String state, String city, String country,
+                                   Collection<String> tags) {
+        String stateKey = TextNormalizer.normalize(state);
+        addBucket(buckets, FacetCount.Dimension.STATE, "", "", state);
+        addBucket(buckets, FacetCount.Dimension.CITY, stateKey == null ? "" : stateKey, state, city);
+        addBucket(buckets, FacetCount.Dimension.COUNTRY, "", "", country);
+        if (tags != null) {
+            for (String tag : tags) {
+                addBucket(buckets, FacetCount.Dimension.TAG, "", "", tag);
+            }
+        }
+    }
+
+    private static void addBucket(Map<FacetCount.Key, FacetCount> buckets, FacetCount.Dimension dimension,
+                                  String parentKey, String parentLabel, String value) {
+        String bucketKey = TextNormalizer.normalize(value);
+        if (bucketKey == null || bucketKey.isEmpty()) {
+            return;
+        }
+        buckets.putIfAbsent(new FacetCount.Key(dimension, parentKey, bucketKey),
+                new FacetCount(dimension, parentKey, bucketKey, parentLabel, value.trim(), 1));
+    }
+
+    // Applies the buckets users left (before) and joined (after) in the current transaction. Only buckets
+    // whose count changes are written: a phone number change costs nothing here.
+    public void apply(List<Map<FacetCount.Key, FacetCount>> before, List<Map<FacetCount.Key, FacetCount>> after) {
+        Map<FacetCount.Key, Long> deltas = new LinkedHashMap<>();
+        Map<FacetCount.Key, FacetCount> newRows = new HashMap<>();
+        for (Map<FacetCount.Key, FacetCount> buckets : before) {
+            buckets.keySet().forEach(key -> deltas.merge(key, -1L, Long::sum));
+        }
+        for (Map<FacetCount.Key, FacetCount> buckets : after) {
+            buckets.forEach((key, row) -> {
+                deltas.merge(key, 1L, Long::sum);
+                newRows.putIfAbsent(key, row);
+            });
+        }
+        for (Map.Entry<FacetCount.Key, Long> entry : deltas.entrySet()) {
+            FacetCount.Key key = entry.getKey();
+            long delta = entry.getValue();
+            if (delta == 0 || facetCountRepository.adjust(key.getDimension(), key.getParentKey(), key.getBucketKey(), delta) > 0) {
+                continue;
+            }
+            if (delta > 0) { // First user in this bucket
+                FacetCount row = newRows.get(key);
+                row.setUserCount(delta);
+                entityManager.persist(row);
+            } else {
+                logger.debug("Facet bucket {} is missing; left to the reconciliation.", key);
+            }
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile(); // Also fills the table for data that predates it
+    }
+
+    @Scheduled(initialDelayString = "${addressbook.facets.reconcile-interval:1h}",
+            fixedDelayString = "${addressbook.facets.reconcile-interval:1h}")
+    public void reconcile() {
+        long started = System.nanoTime();
+        // Writers keep going meanwhile. Not read-only, so that it reads the primary rather than a replica.
+        Recount recount = transactionTemplate.execute(status -> {
+            long version = lastVersion();
+            Map<String, List<String>> tagSpellings = new HashMap<>();
+            Map<FacetCount.Key, FacetCount> recounted = recount(tagSpellings);
+            Map<FacetCount.Key, FacetCount> kept = new HashMap<>();
+            facetCountRepository.findAll().forEach(row -> kept.put(row.key(), row));
+            return new Recount(version, recounted, kept, tagSpellings);
+        });
+        Set<FacetCount.Key> suspects = new HashSet<>();
+        recount.kept().forEach((key, row) -> {
+            FacetCount expected = recount.recounted().get(key);
+            if (expected == null || expected.getUserCount() != row.getUserCount()) {
+                suspects.add(key); // Drifted, or empty and to be removed
+            }
+        });
+        recount.recounted().keySet().stream().filter(key -> !recount.kept().containsKey(key)).forEach(suspects::add);
+
+        int drifted = 0;
+        if (!suspects.isEmpty()) {
+            Integer repaired = transactionTemplate.execute(status -> repair(recount, suspects));
+            drifted = repaired == null ? 0 : repaired;
+        }
+        repairs.increment(drifted);
+        logger.info("Reconciled facet counts in {} ms, {} buckets repaired.", (System.nanoTime() - started) / 1_000_000, drifted);
+    }
+
+    // Writers commit under the change counter lock, so nothing moves while it is held. If no write committed
+    // since the recount began, the recount is exact; otherwise each suspect bucket is counted again (indexed
+    // queries), since a concurrent write may explain the difference.
+    private int repair(Recount recount, Set<FacetCount.Key> suspects) {
+        ChangeCounter counter = entityManager.find(ChangeCounter.class, ChangeCounter.ID, LockModeType.PESSIMISTIC_WRITE);
+        boolean unchanged = counter == null || counter.getLastVersion() == recount.version();
+        int drifted = 0;
+        for (FacetCount.Key key : suspects) {
+            FacetCount expected = recount.recounted().get(key);
+            FacetCount row = facetCountRepository.findById(key).orElse(null);
+            long users = unchanged ? (expected == null ? 0 : expected.getUserCount()) : countUsers(key, recount, row);
+            long counted = row == null ? 0 : row.getUserCount();
+            if (counted != users) {
+                logger.warn("Facet bucket {} counted {} users, recount found {}.", key, counted, users);
+                drifted++;
+            }
+            if (row == null) {
+                if (users > 0 && expected != null) {
+                    expected.setUserCount(users);
+                    entityManager.persist(expected);
+                }
+            } else if (users == 0) {
+                entityManager.remove(row); // Empty bucket
+            } else {
+                row.setUserCount(users);
+            }
+        }
+        return drifted;
+    }
+
+    private long countUsers(FacetCount.Key key, Recount recount, FacetCount row) {
+        return switch (key.getDimension()) {
+            case STATE -> addressRepository.countUsersInState(key.getBucketKey());
+            case CITY -> addressRepository.countUsersInCity(key.getParentKey(), key.getBucketKey());
+            case COUNTRY -> addressRepository.countUsersInCountry(key.getBucketKey());
+            case TAG -> {
+                // Spellings seen by the recount, plus the one the bucket was created with
+                Set<String> spellings = new HashSet<>(recount.tagSpellings().getOrDefault(key.getBucketKey(), List.of()));
+                if (row != null) {
+                    spellings.add(row.getLabel());
+                }
+                yield addressRepository.countUsersWithAnyTag(spellings);
+            }
+        };
+    }
+
+    private long lastVersion() {
+        ChangeCounter counter = entityManager.find(ChangeCounter.class, ChangeCounter.ID);
+        return counter == null ? 0 : counter.getLastVersion();
+    }
+
+    // Fills tagSpellings with the tags as written, per bucket key
+    private Map<FacetCount.Key, FacetCount> recount(Map<String, List<String>> tagSpellings) {
+        Map<FacetCount.Key, FacetCount> counts = new HashMap<>();
+        putAll(counts, FacetCount.Dimension.STATE, addressRepository.countUsersByState());
+        putAll(counts, FacetCount.Dimension.CITY, addressRepository.countUsersByCity());
+        putAll(counts, FacetCount.Dimension.COUNTRY, addressRepository.countUsersByCountry());
+
+        // Tags are grouped as written; spellings that fold into one bucket are counted again together,
+        // since a user may have several of them
+        Map<String, List<FacetBucketCount>> spellingsByKey = new HashMap<>();
+        for (FacetBucketCount tag : addressRepository.countUsersByTag()) {
+            String bucketKey = TextNormalizer.normalize(tag.bucketKey());
+            if (bucketKey != null && !bucketKey.isEmpty()) {
+                spellingsByKey.computeIfAbsent(bucketKey, key -> new ArrayList<>()).add(tag);
+            }
+        }
+        spellingsByKey.forEach((bucketKey, spellings) -> {
+            List<String> written = spellings.stream().map(FacetBucketCount::bucketKey).toList();
+            tagSpellings.put(bucketKey, written);
+            long users = spellings.size() == 1 ? spellings.get(0).users() : addressRepository.countUsersWithAnyTag(written);
+            counts.put(new FacetCount.Key(FacetCount.Dimension.TAG, "", bucketKey),
+                    new FacetCount(FacetCount.Dimension.TAG, "", bucketKey, "", spellings.get(0).label().trim(), users));
+        });
+        return counts;
+    }
+
+    private static void putAll(Map<FacetCount.Key, FacetCount> counts, FacetCount.Dimension dimension, List<FacetBucketCount> buckets) {
+        for (FacetBucketCount bucket : buckets) {
+            counts.put(new FacetCount.Key(dimension, bucket.parentKey(), bucket.bucketKey()),
+                    new FacetCount(dimension, bucket.parentKey(), bucket.bucketKey(), bucket.parentLabel(), bucket.label(), bucket.users()));
+        }
+    }
+
+    private record Recount(long version, Map<FacetCount.Key, FacetCount> recounted, Map<FacetCount.Key, FacetCount> kept,
+                           Map<String, List<String>> tagSpellings) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserChangeEventDTO;
+import com.gevernova.addressbook.entity.OutboxEvent;
+import com.gevernova.addressbook.repository.OutboxEventRepository;
+import com.gevernova.addressbook.repository.VersionedId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Publishes committed outbox events as UserChangeBatch application events, in commit order and in batches.
+// Woken right after every local commit; the poll interval picks up writes of other instances. Every instance
+// relays all events to its own subscribers, starting with the events committed after it started. Events older
+// than the retention are purged; a subscriber can resume (Last-Event-ID) within that window.
+@Component
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile Thread worker;
+    private VersionedId lastRelayed; // Only touched by the worker thread
+    private Instant nextPurge = Instant.EPOCH;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${addressbook.outbox.batch-size:500}") int batchSize,
+                       @Value("${addressbook.outbox.poll-interval:1s}") Duration pollInterval,
+                       @Value("${addressbook.outbox.retention:1d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        // Deliberately not read-only: read-only transactions may go to a lagging replica (ReadReplicaConfig),
+        // and the relay must see every commit, in order, as soon as it is woken
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    // Called after a commit that wrote outbox events
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    // Reads the events after 'after' in commit order (the resume path of the change stream)
+    public List<OutboxEvent> eventsAfter(VersionedId after, int limit) {
+        return transactionTemplate.execute(status ->
+                outboxEventRepository.findAfter(after.version(), after.id(), PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public synchronized void start() {
+        lastRelayed = transactionTemplate.execute(status -> outboxEventRepository.findNewest(PageRequest.of(0, 1)).stream()
+                .map(event -> new VersionedId(event.getChangeVersion(), event.getId()))
+                .findFirst()
+                .orElse(new VersionedId(-1, 0L)));
+        // Assigned before it starts: run() exits as soon as it isn't the worker
+        Thread thread = Thread.ofPlatform().name("outbox-relay").daemon().unstarted(this::run);
+        worker = thread;
+        thread.start();
+        logger.info("Outbox relay started after event {} (poll interval {}, retention {}).", lastRelayed, pollInterval, retention);
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread running = worker;
+        worker = null;
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return worker != null;
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits(); // One pass covers every commit so far
+                relayPending();
+                purgeExpired();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Outbox relay pass failed, retrying: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void relayPending() {
+        List<OutboxEvent> batch;
+        do {
+            batch = eventsAfter(lastRelayed, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            eventPublisher.publishEvent(new UserChangeBatch(batch.stream().map(UserChangeEventDTO::of).toList()));
+            OutboxEvent last = batch.get(batch.size() - 1);
+            lastRelayed = new VersionedId(last.getChangeVersion(), last.getId());
+            logger.debug("Relayed {} outbox events up to {}.", batch.size(), lastRelayed);
+        } while (batch.size() == batchSize);
+    }
+
+    private void purgeExpired() {
+        Instant now = Instant.now();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plus(Duration.ofMinutes(10));
+        Integer purged = transactionTemplate.execute(status -> outboxEventRepository.deleteOccurredBefore(now.minus(retention)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} outbox events older than {}.", purged, retention);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.exceptionhandler.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs the password hashing (deliberately slow, CPU-bound) on a fixed pool of hash-threads with a queue of
+// queue-capacity. However many requests come in, at most hash-threads cores hash at a time and the rest of
+// the request threads stay free for cheap requests. When the queue is full, single requests are turned away
+// with PasswordHashingBusyException (503) instead of piling up; batches wait for their own earlier rows.
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    // How long a batch waits for room in a queue filled by other callers before giving up
+    private static final long BATCH_WAIT_MILLIS = 10_000;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${addressbook.password.hash-threads:0}") int threads,
+                          @Value("${addressbook.password.hash-queue-capacity:200}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors(); // 0: one per core
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // From submission to result, so queueing shows up as well as the hashing itself
+        this.encodeTimer = Timer.builder("addressbook.password.hash").tag("operation", "encode")
+                .description("Password hashing latency, queue wait included")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("addressbook.password.hash").tag("operation", "matches")
+                .description("Password hashing latency, queue wait included")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("addressbook.password.hash.rejected")
+                .description("Password hashes turned away because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("addressbook.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("addressbook.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(meterRegistry);
+        logger.info("Password hashing on {} threads, queue of {}.", poolSize, queueCapacity);
+    }
+
+    public String encode(String rawPassword) {
+        return await(submitOrReject(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String hash) {
+        return await(submitOrReject(matchesTimer, () -> passwordEncoder.matches(rawPassword, hash)));
+    }
+
+    // True when the hash was made with other settings than the configured ones (e.g. a lower strength).
+    // Only reads the hash's prefix, so it runs on the caller.
+    public boolean needsRehash(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    // Hashes in parallel, in order. When the queue is full the batch waits for its own oldest hash to finish
+    // instead of failing, so a bulk import slows down to what the pool can do.
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> hashes = new ArrayList<>(rawPasswords.size());
+        int awaited = 0;
+        for (String rawPassword : rawPasswords) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_WAIT_MILLIS);
+            while (true) {
+                try {
+                    hashes.add(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+                    break;
+                } catch (RejectedExecutionException e) {
+                    if (awaited < hashes.size()) {
+                        await(hashes.get(awaited++));
+                    } else if (System.nanoTime() < deadline) {
+                        pause(); // The queue is full of other callers' work
+                    } else {
+                        rejected.increment();
+                        throw busy();
+                    }
+                }
+            }
+        }
+        List<String> results = new ArrayList<>(hashes.size());
+        for (Future<String> hash : hashes) {
+            results.add(await(hash));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submitOrReject(Timer timer, Callable<T> task) {
+        try {
+            return submit(timer, task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing queue is full ({} waiting), rejecting the request.", executor.getQueue().size());
+            throw busy();
+        }
+    }
+
+    private <T> Future<T> submit(Timer timer, Callable<T> task) {
+        long submitted = System.nanoTime();
+        return executor.submit(() -> {
+            try {
+                return task.call();
+            } finally {
+                timer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed.", e.getCause());
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room in the password hashing queue.", e);
+        }
+    }
+
+    private static PasswordHashingBusyException busy() {
+        return new PasswordHashingBusyException("Too many password changes in progress, please retry shortly.");
+    }
+}
@@ -0,0 +1,37 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Fills User.primaryCity for rows created before that column existed. ddl-auto=update gives them the column
+// default '', so without this legacy users would sort with the users that have no address under sort=city.
+// Rows already filled are not read again, which keeps the run on every startup cheap.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PrimaryCityBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrimaryCityBackfill.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PrimaryCityBackfill(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer updated = transactionTemplate.execute(status -> userRepository.backfillPrimaryCities());
+        if (updated != null && updated > 0) {
+            logger.info("Backfilled the primary city of {} users.", updated);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.BulkDeleteResultDTO;
+
+import java.util.List;
+
+public interface UserBulkDeleteService {
+    // Deletes the users with the given ids, or else every user with an address in 'state' and/or an address
+    // tagged 'tag', in chunked transactions of set-based statements. Unknown ids are skipped.
+    BulkDeleteResultDTO deleteUsers(List<Long> ids, String state, String tag);
+}
@@ -0,0 +1,147 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.cache.AddressSearchCache;
+import com.gevernova.addressbook.cache.UserResponseCache;
+import com.gevernova.addressbook.dto.BulkDeleteResultDTO;
+import com.gevernova.addressbook.entity.FacetCount;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.repository.AddressRepository;
+import com.gevernova.addressbook.repository.AddressTagRow;
+import com.gevernova.addressbook.repository.UserRepository;
+import com.gevernova.addressbook.util.TextNormalizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Deletes many users without loading them: per chunk, a few queries read what the change feed, the facet
+// counts and the caches need to know, then two DELETE statements remove the addresses (with their tags)
+// and the users. Deleting one entity at a time would cost a select and three deletes per user.
+@Service
+public class UserBulkDeleteServiceImpl implements UserBulkDeleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBulkDeleteServiceImpl.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final AddressRepository addressRepository;
+    private final UserChangeTracker changeTracker;
+    private final FacetCounter facetCounter;
+    private final AddressSearchCache addressSearchCache;
+    private final UserResponseCache userResponseCache;
+    private final int chunkSize;
+
+    @Autowired
+    public UserBulkDeleteServiceImpl(TransactionTemplate transactionTemplate, UserRepository userRepository,
+                                     AddressRepository addressRepository, UserChangeTracker changeTracker,
+                                     FacetCounter facetCounter, AddressSearchCache addressSearchCache,
+                                     UserResponseCache userResponseCache,
+                                     @Value("${addressbook.bulk-delete.chunk-size:1000}") int chunkSize) {
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.addressRepository = addressRepository;
+        this.changeTracker = changeTracker;
+        this.facetCounter = facetCounter;
+        this.addressSearchCache = addressSearchCache;
+        this.userResponseCache = userResponseCache;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BulkDeleteResultDTO deleteUsers(List<Long> ids, String state, String tag) {
+        String stateKey = TextNormalizer.normalize(state);
+        String tagValue = tag == null || tag.isBlank() ? null : tag;
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds == (stateKey != null && !stateKey.isEmpty() || tagValue != null)) {
+            throw new BadRequestException("Pass either 'ids' or at least one of 'state' and 'tag'.");
+        }
+        long start = System.nanoTime();
+        long deleted = 0;
+        long chunks = 0;
+
+        if (byIds) {
+            List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+            logger.info("Bulk delete of {} user IDs started.", distinctIds.size());
+            for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+                List<Long> deletedIds = transactionTemplate.execute(status -> deleteChunk(userRepository.findExistingIds(chunk)));
+                deleted += deletedIds == null ? 0 : deletedIds.size();
+                chunks++;
+                logger.info("Bulk delete progress: {} of {} IDs processed, {} users deleted.",
+                        from + chunk.size(), distinctIds.size(), deleted);
+            }
+        } else {
+            String filterStateKey = stateKey == null || stateKey.isEmpty() ? null : stateKey;
+            logger.info("Bulk delete of users matching state '{}' and tag '{}' started.", state, tagValue);
+            long afterId = 0; // Keyset over the ids: each chunk starts where the previous one stopped
+            while (true) {
+                long from = afterId;
+                List<Long> deletedIds = transactionTemplate.execute(status ->
+                        deleteChunk(userRepository.findIdsMatching(from, filterStateKey, tagValue, PageRequest.of(0, chunkSize))));
+                if (deletedIds == null || deletedIds.isEmpty()) {
+                    break;
+                }
+                deleted += deletedIds.size();
+                chunks++;
+                afterId = deletedIds.get(deletedIds.size() - 1);
+                logger.info("Bulk delete progress: {} users deleted (up to ID {}).", deleted, afterId);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? deleted : deleted * 1000.0 / elapsedMillis;
+        logger.info("Bulk delete finished: {} users deleted in {} chunks, {} ms ({} rows/s).",
+                deleted, chunks, elapsedMillis, Math.round(rowsPerSecond));
+        return BulkDeleteResultDTO.builder()
+                .deleted(deleted)
+                .chunks(chunks)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    // Runs inside the chunk's transaction, which selected the users with a row lock, so they and their
+    // addresses can't change between the reads and the deletes
+    private List<Long> deleteChunk(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return userIds;
+        }
+        List<AddressTagRow> rows = addressRepository.findTagRowsByUserIdIn(userIds);
+        Map<Long, Map<FacetCount.Key, FacetCount>> facets = facetCounter.bucketsOf(rows);
+        Set<AddressSearchCache.Location> locations = new HashSet<>();
+        for (AddressTagRow row : rows) {
+            locations.add(new AddressSearchCache.Location(TextNormalizer.normalize(row.city()),
+                    TextNormalizer.normalize(row.state()), TextNormalizer.normalize(row.zipCode())));
+        }
+
+        // Tombstones and outbox events for the change feed, facet counts before commit
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        for (Long userId : userIds) {
+            changeTracker.deleted(userId, facets.getOrDefault(userId, Map.of()));
+            indexingPlan.purge(User.class, userId, null); // Statements bypass automatic indexing
+            userResponseCache.invalidate(userId);
+        }
+        addressSearchCache.evictMatching(locations); // One pass over the search cache per chunk
+
+        addressRepository.deleteAllByUserIdIn(userIds);
+        userRepository.deleteAllByIdIn(userIds);
+        return userIds;
+    }
+}
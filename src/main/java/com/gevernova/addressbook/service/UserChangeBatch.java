@@ -0,0 +1,9 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserChangeEventDTO;
+
+import java.util.List;
+
+// Application event published by OutboxRelay: committed user changes, in commit order
+public record UserChangeBatch(List<UserChangeEventDTO> events) {
+}
@@ -0,0 +1,190 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserChangeEventDTO;
+import com.gevernova.addressbook.entity.OutboxEvent;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.repository.VersionedId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Server-Sent Events fan-out of the relayed outbox events (GET /api/users/stream). Each subscriber has a bounded
+// queue drained by its own virtual thread, so a slow client never holds up the relay or the other subscribers.
+// A subscriber whose queue overflows is disconnected; its EventSource reconnects with Last-Event-ID and
+// catches up from the outbox table instead of being buffered in memory.
+@Component
+public class UserChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeStream.class);
+
+    // Events read per outbox query while a resuming subscriber catches up
+    private static final int REPLAY_BATCH_SIZE = 500;
+
+    private final OutboxRelay outboxRelay;
+    private final int queueCapacity;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter overflows;
+
+    public UserChangeStream(OutboxRelay outboxRelay,
+                            @Value("${addressbook.stream.queue-capacity:1000}") int queueCapacity,
+                            @Value("${addressbook.stream.heartbeat:15s}") Duration heartbeat,
+                            @Value("${addressbook.stream.timeout:30m}") Duration timeout,
+                            MeterRegistry meterRegistry) {
+        this.outboxRelay = outboxRelay;
+        this.queueCapacity = queueCapacity;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        Gauge.builder("addressbook.stream.subscribers", subscribers, Set::size)
+                .description("Open change stream connections")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("addressbook.stream.overflows")
+                .description("Change stream subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+    }
+
+    // Opens a stream; with a Last-Event-ID, the events after it are replayed from the outbox first
+    public SseEmitter subscribe(String lastEventId) {
+        VersionedId resumeAfter = lastEventId == null || lastEventId.isBlank() ? null : parseEventId(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, resumeAfter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Registered before the replay, so nothing committed in between is missed; duplicates are skipped
+        subscribers.add(subscriber);
+        Thread.ofVirtual().name("change-stream").start(subscriber::run);
+        logger.info("Change stream subscriber connected ({} open, resuming after {}).", subscribers.size(), resumeAfter);
+        return emitter;
+    }
+
+    @EventListener
+    public void onChanges(UserChangeBatch batch) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(batch.events());
+        }
+    }
+
+    // Ends open streams on shutdown, so a graceful shutdown doesn't wait for them; clients reconnect elsewhere
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+            subscriber.close();
+        }
+    }
+
+    private static VersionedId parseEventId(String eventId) {
+        String[] parts = eventId.trim().split("-");
+        try {
+            if (parts.length == 2) {
+                return new VersionedId(Long.parseLong(parts[0]), Long.valueOf(parts[1]));
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the error below
+        }
+        throw new BadRequestException("Malformed Last-Event-ID: " + eventId);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<UserChangeEventDTO> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private VersionedId lastSent; // Only touched by the subscriber thread
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, VersionedId resumeAfter) {
+            this.emitter = emitter;
+            this.lastSent = resumeAfter;
+        }
+
+        private void offer(List<UserChangeEventDTO> events) {
+            for (UserChangeEventDTO event : events) {
+                if (!queue.offer(event)) {
+                    overflowed = true; // Noticed by the sender once its current send returns
+                    return;
+                }
+            }
+        }
+
+        private void run() {
+            try {
+                if (lastSent != null) {
+                    replay();
+                }
+                while (!closed && !overflowed) {
+                    UserChangeEventDTO event = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        send(event);
+                    }
+                }
+                if (overflowed) {
+                    overflows.increment();
+                    logger.warn("Change stream subscriber fell {} events behind and was disconnected.", queueCapacity);
+                    emitter.complete(); // The client reconnects with its Last-Event-ID
+                }
+            } catch (InterruptedException e) {
+                emitter.complete(); // Shutting down
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Change stream subscriber went away: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("Change stream subscriber failed: {}", e.getMessage());
+                emitter.completeWithError(e);
+            } finally {
+                close();
+            }
+        }
+
+        // Catches up from the outbox table; the live queue fills meanwhile and is deduplicated by send()
+        private void replay() throws IOException {
+            List<OutboxEvent> batch;
+            do {
+                batch = outboxRelay.eventsAfter(lastSent, REPLAY_BATCH_SIZE);
+                for (OutboxEvent event : batch) {
+                    send(UserChangeEventDTO.of(event));
+                }
+            } while (batch.size() == REPLAY_BATCH_SIZE && !closed);
+        }
+
+        private void send(UserChangeEventDTO event) throws IOException {
+            VersionedId position = parseEventId(event.getId());
+            if (lastSent != null && (position.version() < lastSent.version()
+                    || (position.version() == lastSent.version() && position.id() <= lastSent.id()))) {
+                return; // Already sent by the replay
+            }
+            emitter.send(SseEmitter.event()
+                    .id(event.getId())
+                    .name("user-change")
+                    .data(event, MediaType.APPLICATION_JSON));
+            lastSent = position;
+        }
+
+        private void close() {
+            closed = true;
+            if (subscribers.remove(this)) {
+                logger.info("Change stream subscriber disconnected ({} open).", subscribers.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.entity.ChangeCounter;
+import com.gevernova.addressbook.entity.FacetCount;
+import com.gevernova.addressbook.entity.OutboxEvent;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.entity.UserTombstone;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hands out the change versions behind delta sync (GET /api/users/changes). Every write transaction gets one
+// version, assigned as late as possible: just before commit, the transaction flushes its changes, locks the
+// counter row, stamps the version on its users, tombstones and outbox events (OutboxEvent, for the change
+// stream), adjusts the facet counts (FacetCounter) and commits. The lock is held only for those last
+// statements, yet versions still become visible in increasing order: a client that has seen version v never
+// later finds a new change at or below v.
+// No deadlock with the counter lock: a transaction already holds every row lock it needs before taking it.
+// changed() locks an existing user's row up front, the flush takes the locks of its other writes, and facet
+// rows are only ever written under the counter lock.
+@Component
+public class UserChangeTracker implements ApplicationRunner {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxRelay outboxRelay;
+    private final FacetCounter facetCounter;
+
+    public UserChangeTracker(TransactionTemplate transactionTemplate, OutboxRelay outboxRelay, FacetCounter facetCounter) {
+        this.transactionTemplate = transactionTemplate;
+        this.outboxRelay = outboxRelay;
+        this.facetCounter = facetCounter;
+    }
+
+    // Changes of one transaction, and its version once assigned. Users are kept rather than ids: a new user only
+    // gets its id when it is persisted, after changed() was called. Facet buckets are taken before the changes.
+    private static final class TransactionChanges {
+        private long version;
+        private final List<User> created = new ArrayList<>();
+        private final List<User> updated = new ArrayList<>();
+        private final List<Long> deleted = new ArrayList<>();
+        private final Map<User, Map<FacetCount.Key, FacetCount>> facetsBefore = new IdentityHashMap<>();
+        private final List<Map<FacetCount.Key, FacetCount>> deletedFacets = new ArrayList<>();
+    }
+
+    // Creates the counter row on a fresh database
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (entityManager.find(ChangeCounter.class, ChangeCounter.ID) == null) {
+                entityManager.persist(new ChangeCounter(ChangeCounter.ID, 0));
+            }
+        });
+    }
+
+    // Records a created or updated user (address changes count as a change of their user). Call it before
+    // changing an existing user, with its addresses and tags loaded: its row is locked here, so concurrent
+    // writes of one user queue up and its facet buckets are taken from the current data.
+    public void changed(User user) {
+        TransactionChanges changes = currentChanges();
+        if (user.getId() == null) {
+            changes.created.add(user);
+        } else if (!changes.facetsBefore.containsKey(user)) {
+            if (entityManager.getLockMode(user) != LockModeType.PESSIMISTIC_WRITE) { // Unless loaded locked
+                entityManager.lock(user, LockModeType.PESSIMISTIC_WRITE);
+            }
+            changes.facetsBefore.put(user, facetCounter.bucketsOf(user));
+            changes.updated.add(user);
+        }
+    }
+
+    // Records the deletion of a user for clients that still have it. Call it before the user is removed,
+    // with its addresses and tags loaded.
+    public void deleted(User user) {
+        deleted(user.getId(), facetCounter.bucketsOf(user));
+    }
+
+    // Same, for a user deleted without being loaded (the caller locks its row); facets are its buckets
+    // (FacetCounter.bucketsOf)
+    public void deleted(Long userId, Map<FacetCount.Key, FacetCount> facets) {
+        TransactionChanges changes = currentChanges();
+        changes.deleted.add(userId);
+        changes.deletedFacets.add(facets);
+    }
+
+    private TransactionChanges currentChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Changes can only be tracked inside a transaction.");
+        }
+        TransactionChanges current = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+        if (current != null) {
+            return current;
+        }
+        TransactionChanges changes = new TransactionChanges();
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entityManager.flush(); // Row locks of the transaction's own writes first, then the counter
+                changes.version = nextVersion();
+                stampVersion(changes);
+                appendToOutbox(changes);
+                countFacets(changes);
+            }
+
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(UserChangeTracker.this);
+            }
+        });
+        return changes;
+    }
+
+    // Locks the counter row until commit
+    private long nextVersion() {
+        ChangeCounter counter = entityManager.find(ChangeCounter.class, ChangeCounter.ID, LockModeType.PESSIMISTIC_WRITE);
+        if (counter == null) { // Seeded at startup; only a write racing the seeding gets here
+            counter = new ChangeCounter(ChangeCounter.ID, 0);
+            entityManager.persist(counter);
+        }
+        counter.setLastVersion(counter.getLastVersion() + 1);
+        return counter.getLastVersion();
+    }
+
+    // Rows the transaction already wrote (and locked); flushed with the outbox events on commit
+    private void stampVersion(TransactionChanges changes) {
+        changes.created.forEach(user -> user.setChangeVersion(changes.version));
+        changes.updated.forEach(user -> user.setChangeVersion(changes.version));
+        Instant now = Instant.now();
+        for (Long userId : changes.deleted) {
+            entityManager.persist(new UserTombstone(userId, changes.version, now));
+        }
+    }
+
+    private void appendToOutbox(TransactionChanges changes) {
+        Instant now = Instant.now();
+        for (User user : changes.created) {
+            entityManager.persist(new OutboxEvent(changes.version, OutboxEvent.Type.CREATED, user.getId(), now));
+        }
+        for (User user : changes.updated) {
+            entityManager.persist(new OutboxEvent(changes.version, OutboxEvent.Type.UPDATED, user.getId(), now));
+        }
+        for (Long userId : changes.deleted) {
+            entityManager.persist(new OutboxEvent(changes.version, OutboxEvent.Type.DELETED, userId, now));
+        }
+    }
+
+    private void countFacets(TransactionChanges changes) {
+        List<Map<FacetCount.Key, FacetCount>> before = new ArrayList<>(changes.facetsBefore.values());
+        before.addAll(changes.deletedFacets);
+        List<Map<FacetCount.Key, FacetCount>> after = new ArrayList<>();
+        for (User user : changes.created) {
+            after.add(facetCounter.bucketsOf(user));
+        }
+        for (User user : changes.updated) {
+            after.add(facetCounter.bucketsOf(user));
+        }
+        facetCounter.apply(before, after);
+    }
+}
@@ -0,0 +1,10 @@
+package com.gevernova.addressbook.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+    // Writes every user with id > afterId (all users when null), in id order, to 'out'.
+    // Returns the number of users written; the last id written can be used to resume an interrupted export.
+    long exportUsers(ExportFormat format, Long afterId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,145 @@
+package com.gevernova.addressbook.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gevernova.addressbook.dto.AddressResponseDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.mapper.UserMapper;
+import com.gevernova.addressbook.pagination.KeysetCursor;
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.AddressRepository;
+import com.gevernova.addressbook.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportServiceImpl.class);
+
+    private static final String CSV_HEADER = "user_id,first_name,last_name,email,phone_number,"
+            + "address_id,street,address_line2,city,state,zip_code,country,tags";
+
+    private final UserRepository userRepository;
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter userWriter;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public UserExportServiceImpl(UserRepository userRepository, AddressRepository addressRepository,
+                                 PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                 @Value("${addressbook.export.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.addressRepository = addressRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.userWriter = objectMapper.writerFor(UserResponseDTO.class);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public long exportUsers(ExportFormat format, Long afterId, OutputStream out) throws IOException {
+        logger.info("Starting {} export after user ID {}.", format, afterId);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long exported = 0;
+        Long lastId = afterId;
+        while (true) {
+            // Each chunk is read in its own short read-only transaction: the persistence context (and the
+            // connection) is released before the chunk is written, so heap use does not grow with the table.
+            KeysetCursor after = lastId == null ? null : new KeysetCursor(UserSort.ID.getParam(), lastId, null);
+            List<UserResponseDTO> chunk = readOnlyTransaction.execute(status -> readChunk(after));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            for (UserResponseDTO user : chunk) {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, user);
+                } else {
+                    writer.write(userWriter.writeValueAsString(user));
+                    writer.write('\n');
+                }
+            }
+            writer.flush(); // Push each chunk to the client instead of buffering the response
+            exported += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).getId();
+            logger.debug("Exported {} users so far (last user ID {}).", exported, lastId);
+        }
+        writer.flush();
+        logger.info("Finished {} export: {} users, last user ID {}.", format, exported, lastId);
+        return exported;
+    }
+
+    private List<UserResponseDTO> readChunk(KeysetCursor after) {
+        // Use cached users, but don't let a full scan evict the hot entries of the second-level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+        List<User> users = userRepository.findUserPage(null, UserSort.ID, after, chunkSize);
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        userRepository.findAllWithAddressesByIdIn(userIds);
+        addressRepository.fetchTagsByUserIdIn(userIds);
+        return UserMapper.convertToUserDTOs(users);
+    }
+
+    // One line per address, user columns repeated; users without an address get one line with empty address columns
+    private static void writeCsv(Writer writer, UserResponseDTO user) throws IOException {
+        String userColumns = user.getId() + "," + csv(user.getFirstName()) + "," + csv(user.getLastName()) + ","
+                + csv(user.getEmail()) + "," + csv(user.getPhoneNumber()) + ",";
+        if (user.getAddresses() == null || user.getAddresses().isEmpty()) {
+            writer.write(userColumns);
+            writer.write(",,,,,,,,\n");
+            return;
+        }
+        for (AddressResponseDTO address : user.getAddresses()) {
+            writer.write(userColumns);
+            writer.write(addressColumns(address));
+            writer.write('\n');
+        }
+    }
+
+    private static String addressColumns(AddressResponseDTO address) {
+        String tags = address.getTags() == null ? "" : String.join("|", address.getTags());
+        return address.getId() + "," + csv(address.getStreet()) + "," + csv(address.getAddressLineTwo()) + ","
+                + csv(address.getCity()) + "," + csv(address.getState()) + "," + csv(address.getZipCode()) + ","
+                + csv(address.getCountry()) + "," + csv(tags);
+    }
+
+    // RFC 4180 quoting: only fields containing a separator, quote or line break are quoted
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,12 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.BulkImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    // Streams users from a JSON array (ndjson = false) or newline-delimited JSON (ndjson = true),
+    // validates each row and inserts valid rows in batched chunks. Invalid rows are reported, not fatal.
+    BulkImportResultDTO importUsers(InputStream body, boolean ndjson) throws IOException;
+}
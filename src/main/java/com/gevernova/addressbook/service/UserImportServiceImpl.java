@@ -0,0 +1,258 @@
+package com.gevernova.addressbook.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gevernova.addressbook.cache.AddressSearchCache;
+import com.gevernova.addressbook.cache.EmailBloomFilter;
+import com.gevernova.addressbook.dto.BulkImportResultDTO;
+import com.gevernova.addressbook.dto.BulkRowErrorDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.mapper.UserMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    // Keeps the response bounded when a whole file is bad; the failed count is always exact
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PasswordHasher passwordHasher;
+    private final AddressSearchCache addressSearchCache;
+    private final UserChangeTracker changeTracker;
+    private final EmailBloomFilter emailFilter;
+    private final int chunkSize;
+
+    @Autowired
+    public UserImportServiceImpl(TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper,
+                                 PasswordHasher passwordHasher, AddressSearchCache addressSearchCache,
+                                 UserChangeTracker changeTracker, EmailBloomFilter emailFilter,
+                                 @Value("${addressbook.bulk-import.chunk-size:500}") int chunkSize) {
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.passwordHasher = passwordHasher;
+        this.addressSearchCache = addressSearchCache;
+        this.changeTracker = changeTracker;
+        this.emailFilter = emailFilter;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BulkImportResultDTO importUsers(InputStream body, boolean ndjson) throws IOException {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+
+        RowHandler handler = (row, dto) -> {
+            progress.received++;
+            if (dto == null) { // A JSON null element or NDJSON line; the validator rejects null outright
+                progress.reject(row, List.of("Row must be a user object, not null."));
+                return;
+            }
+            List<String> violations = validate(dto);
+            if (!violations.isEmpty()) {
+                progress.reject(row, violations);
+                return;
+            }
+            chunk.add(new PendingRow(row, dto));
+            if (chunk.size() >= chunkSize) {
+                persistChunk(chunk, progress);
+                chunk.clear();
+            }
+        };
+
+        if (ndjson) {
+            readNdjson(body, handler, progress);
+        } else {
+            readJsonArray(body, handler, progress);
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, progress);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? progress.imported : progress.imported * 1000.0 / elapsedMillis;
+        logger.info("Bulk import finished: {} received, {} imported, {} failed in {} ms ({} rows/s).",
+                progress.received, progress.imported, progress.failed, elapsedMillis, Math.round(rowsPerSecond));
+        return BulkImportResultDTO.builder()
+                .received(progress.received)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(progress.errors)
+                .build();
+    }
+
+    // Reads the array element by element, so memory stays bounded by one chunk whatever the file size
+    private void readJsonArray(InputStream body, RowHandler handler, ImportProgress progress) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Bulk import body must be a JSON array of users.");
+            }
+            long row = 0;
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    row++;
+                    JsonNode node = parser.readValueAsTree();
+                    UserRequestDTO dto;
+                    try {
+                        dto = objectMapper.treeToValue(node, UserRequestDTO.class);
+                    } catch (JsonProcessingException e) {
+                        progress.received++;
+                        progress.reject(row, List.of(e.getOriginalMessage()));
+                        continue;
+                    }
+                    handler.handle(row, dto);
+                }
+            } catch (JsonProcessingException e) {
+                // Syntax error: the rest of the stream cannot be parsed, keep what was imported so far
+                progress.received++;
+                progress.reject(row, List.of("Malformed JSON, import stopped here: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private void readNdjson(InputStream body, RowHandler handler, ImportProgress progress) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        long row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++; // Rows are line numbers, so errors can be located in the file
+            if (line.isBlank()) {
+                continue;
+            }
+            UserRequestDTO dto;
+            try {
+                dto = objectMapper.readValue(line, UserRequestDTO.class);
+            } catch (JsonProcessingException e) {
+                progress.received++;
+                progress.reject(row, List.of(e.getOriginalMessage()));
+                continue;
+            }
+            handler.handle(row, dto);
+        }
+    }
+
+    private List<String> validate(UserRequestDTO dto) {
+        Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(dto);
+        List<String> messages = new ArrayList<>(violations.size());
+        for (ConstraintViolation<UserRequestDTO> violation : violations) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return messages;
+    }
+
+    // One transaction per chunk: with pooled sequence ids and hibernate.jdbc.batch_size the inserts
+    // go out as JDBC batches. If the chunk fails (e.g. a constraint violation), rows are retried one
+    // by one so that only the offending rows are reported.
+    private void persistChunk(List<PendingRow> chunk, ImportProgress progress) {
+        // The chunk's passwords are hashed in parallel on the hashing pool, before the transaction takes a connection
+        List<String> passwordHashes = passwordHasher.encodeAll(chunk.stream().map(row -> row.dto().getPassword()).toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Imported users would only push the hot entries out of the second-level cache
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                Set<AddressSearchCache.Location> locations = new HashSet<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    User user = toEntity(chunk.get(i), passwordHashes.get(i));
+                    changeTracker.changed(user); // The whole chunk shares one change version
+                    entityManager.persist(user);
+                    emailFilter.add(user.getEmailKey()); // Before commit, as every local write; a rollback leaves a harmless "maybe"
+                    locations.addAll(AddressSearchCache.Footprint.of(user).locations());
+                }
+                addressSearchCache.evictMatching(locations); // One pass over the search cache per chunk
+                entityManager.flush();
+                entityManager.clear(); // Keep the persistence context from growing across chunks
+            });
+            progress.imported += chunk.size();
+            logger.debug("Bulk import committed a chunk of {} users ({} so far).", chunk.size(), progress.imported);
+        } catch (RuntimeException chunkFailure) {
+            logger.warn("Bulk import chunk of {} users failed ({}), retrying row by row.",
+                    chunk.size(), NestedExceptionUtils.getMostSpecificCause(chunkFailure).getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                PendingRow row = chunk.get(i);
+                String passwordHash = passwordHashes.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                        User user = toEntity(row, passwordHash);
+                        changeTracker.changed(user);
+                        entityManager.persist(user);
+                        emailFilter.add(user.getEmailKey());
+                        addressSearchCache.evictMatching(AddressSearchCache.Footprint.of(user).locations());
+                    });
+                    progress.imported++;
+                } catch (RuntimeException rowFailure) {
+                    progress.reject(row.row(), List.of(NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage()));
+                }
+            }
+        }
+    }
+
+    // A fresh entity per attempt: a failed transaction leaves ids assigned on the previous instances
+    private static User toEntity(PendingRow row, String passwordHash) {
+        User user = UserMapper.convertToUserEntity(row.dto());
+        user.setPassword(passwordHash);
+        user.getAddresses().forEach(address -> address.setUser(user));
+        user.syncPrimaryCity();
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(long row, UserRequestDTO dto);
+    }
+
+    private record PendingRow(long row, UserRequestDTO dto) {
+    }
+
+    private static class ImportProgress {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<BulkRowErrorDTO> errors = new ArrayList<>();
+
+        private void reject(long row, List<String> messages) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BulkRowErrorDTO(row, messages));
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.SearchResultDTO;
+
+public interface UserSearchService {
+    // Ranked, fuzzy full-text search over names, email, phone, street, city and tags; page is zero-based
+    SearchResultDTO search(String query, int page, int size);
+
+    // Drops and rebuilds the full-text index from the database; returns the number of indexed users
+    long rebuildIndex();
+}
@@ -0,0 +1,114 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.SearchResultDTO;
+import com.gevernova.addressbook.dto.UserSearchHitDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.mapping.SearchMapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Timed("addressbook.service") // One timer per public method, tagged with class and method
+public class UserSearchServiceImpl implements UserSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Deepest hit a page may start at: Lucene collects every hit up to the offset, so deep pages get slow
+    private static final int MAX_OFFSET = 10_000;
+
+    // Index fields searched by the free-text query (see @FullTextField/@IndexedEmbedded on User and Address)
+    private static final String[] SEARCH_FIELDS = {
+            "firstName", "lastName", "email", "phoneNumber",
+            "addresses.street", "addresses.city", "addresses.tags"
+    };
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public UserSearchServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public SearchResultDTO search(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query 'q' must not be blank.");
+        }
+        if (page < 0 || size < 1) {
+            throw new BadRequestException("page must be >= 0 and size must be >= 1.");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        long offset = (long) page * pageSize; // page * pageSize could overflow an int
+        if (offset > MAX_OFFSET) {
+            throw new BadRequestException("Search results are limited to the first " + MAX_OFFSET
+                    + " hits; refine the query instead of paging further.");
+        }
+        String terms = query.trim();
+        logger.debug("Full-text search for '{}' (page {}, size {}).", terms, page, pageSize);
+
+        // A plain EntityManager without a transaction: hits are projected from stored index fields,
+        // so no entity is loaded and no JDBC connection is acquired.
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            SearchResult<UserSearchHitDTO> result = Search.session(entityManager)
+                    .search(User.class)
+                    .select(f -> f.composite()
+                            .from(f.id(Long.class),
+                                    f.field("firstName", String.class),
+                                    f.field("lastName", String.class),
+                                    f.field("email", String.class),
+                                    f.field("phoneNumber", String.class),
+                                    f.score())
+                            .asList(UserSearchServiceImpl::toHit))
+                    // Exact term matches outrank fuzzy (one edit) matches
+                    .where(f -> f.bool()
+                            .should(f.match().fields(SEARCH_FIELDS).matching(terms).boost(2.0f))
+                            .should(f.match().fields(SEARCH_FIELDS).matching(terms).fuzzy(1)))
+                    .fetch((int) offset, pageSize);
+
+            logger.debug("Full-text search for '{}' matched {} users.", terms, result.total().hitCount());
+            return new SearchResultDTO(result.total().hitCount(), page, pageSize, result.hits());
+        }
+    }
+
+    @Override
+    public long rebuildIndex() {
+        logger.info("Rebuilding the full-text user index.");
+        SearchMapping mapping = Search.mapping(entityManagerFactory);
+        try {
+            mapping.scope(User.class).massIndexer()
+                    .purgeAllOnStart(true)
+                    .startAndWait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Full-text index rebuild was interrupted.", e);
+        }
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            long indexed = Search.session(entityManager).search(User.class)
+                    .where(f -> f.matchAll())
+                    .fetchTotalHitCount();
+            logger.info("Full-text user index rebuilt with {} users.", indexed);
+            return indexed;
+        }
+    }
+
+    private static UserSearchHitDTO toHit(List<?> fields) {
+        return new UserSearchHitDTO(
+                (Long) fields.get(0),
+                (String) fields.get(1),
+                (String) fields.get(2),
+                (String) fields.get(3),
+                (String) fields.get(4),
+                (Float) fields.get(5));
+    }
+}
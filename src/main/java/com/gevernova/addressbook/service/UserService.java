@@ -1,23 +1,52 @@
 package com.gevernova.addressbook.service;
 
 
+import com.gevernova.addressbook.dto.AddressResponseDTO;
+import com.gevernova.addressbook.dto.CursorPage;
+import com.gevernova.addressbook.dto.FacetBucketDTO;
+import com.gevernova.addressbook.dto.UserBatchDTO;
+import com.gevernova.addressbook.dto.UserChangesDTO;
+import com.gevernova.addressbook.dto.UserPatchDTO;
 import com.gevernova.addressbook.dto.UserRequestDTO;
 import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.dto.UserSummaryDTO;
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.AddressSearchCriteria;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.repository.UserFields;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
-    List<UserResponseDTO> getAllUsers();
+    // Listing and search results are keyset-paginated: pass the 'next' cursor of one page to get the following one
+    CursorPage<UserResponseDTO> getAllUsers(UserSort sort, String cursor, int limit);
     Optional<UserResponseDTO> getUserById(Long id);
+    Optional<UserResponseDTO> getUserByEmail(String email); // Case-insensitive; most misses are answered without a query
+    UserBatchDTO getUsersByIds(List<Long> ids); // Missing ids are reported in the result, not thrown
     UserResponseDTO createUser(UserRequestDTO userRequestDTO); // Changed to accept DTO
     UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO); // Changed to accept DTO
+    UserResponseDTO patchUser(Long id, UserPatchDTO userPatchDTO); // Only non-null fields are applied
     void deleteUser(Long id);
 
+    // Delta sync: users written and ids deleted since a token from the previous call (null for everything)
+    UserChangesDTO getChanges(String since, int limit);
+
+    // Users per state, city, country or tag, largest buckets first; 'state' narrows the cities to one state
+    List<FacetBucketDTO> getFacets(String by, String state, int limit);
+
     // New methods for searching and sorting addresses by city/state,
     // returning users who have such addresses.
-    List<UserResponseDTO> findUsersByAddressCityAndState(String city, String state);
-    List<UserResponseDTO> findUsersByAddressCity(String city);
-    List<UserResponseDTO> findUsersByAddressState(String state);
-    List<UserResponseDTO> findUsersByAddressCityOrState(String city, String state);
+    // MatchMode EXACT and PREFIX use the normalized-key indexes; CONTAINS scans the key column.
+    CursorPage<UserResponseDTO> findUsersByAddressCityAndState(String city, String state, MatchMode match, UserSort sort, String cursor, int limit);
+    CursorPage<UserResponseDTO> findUsersByAddressCity(String city, MatchMode match, UserSort sort, String cursor, int limit);
+    CursorPage<UserResponseDTO> findUsersByAddressState(String state, MatchMode match, UserSort sort, String cursor, int limit);
+    CursorPage<UserResponseDTO> findUsersByAddressCityOrState(String city, String state, MatchMode match, UserSort sort, String cursor, int limit);
+    CursorPage<UserResponseDTO> findUsersByAddressZipCode(String zipCode, MatchMode match, UserSort sort, String cursor, int limit);
+
+    // Listing (null criteria) or address search reduced to scalar fields: one query, no addresses or tags loaded
+    CursorPage<UserSummaryDTO> findUserSummaries(AddressSearchCriteria criteria, UserFields fields, UserSort sort, String cursor, int limit);
+
+    // All addresses sorted by city, keyset-paginated on (city, id)
+    CursorPage<AddressResponseDTO> getAddressesSortedByCity(String cursor, int limit);
 }
@@ -1,73 +1,119 @@
 package com.gevernova.addressbook.service;
 
+import com.gevernova.addressbook.cache.AddressSearchCache;
+import com.gevernova.addressbook.cache.EmailBloomFilter;
+import com.gevernova.addressbook.cache.UserResponseCache;
+import com.gevernova.addressbook.dto.AddressResponseDTO;
+import com.gevernova.addressbook.dto.CursorPage;
+import com.gevernova.addressbook.dto.FacetBucketDTO;
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.UserBatchDTO;
+import com.gevernova.addressbook.dto.UserChangesDTO;
+import com.gevernova.addressbook.dto.UserPatchDTO;
 import com.gevernova.addressbook.dto.UserRequestDTO;
 import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.dto.UserSummaryDTO;
 import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.entity.FacetCount;
 import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.exceptionhandler.DuplicateEmailException;
 import com.gevernova.addressbook.exceptionhandler.UserNotFoundException; // New UserNotFoundException
 import com.gevernova.addressbook.mapper.UserMapper;
+import com.gevernova.addressbook.pagination.KeysetCursor;
+import com.gevernova.addressbook.pagination.UserSort;
 import com.gevernova.addressbook.repository.AddressRepository;
+import com.gevernova.addressbook.repository.AddressSearchCriteria;
+import com.gevernova.addressbook.repository.FacetCountRepository;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.repository.UserFields;
 import com.gevernova.addressbook.repository.UserRepository; // New UserRepository
-import org.springframework.beans.BeanUtils;
+import com.gevernova.addressbook.repository.UserTombstoneRepository;
+import com.gevernova.addressbook.repository.VersionedId;
+import com.gevernova.addressbook.util.TextNormalizer;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.Tuple;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
+@Timed("addressbook.service") // One timer per public method, tagged with class and method
 public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
+    private final PasswordHasher passwordHasher;
+    private final UserResponseCache userResponseCache;
+    private final AddressSearchCache addressSearchCache;
+    private final UserChangeTracker changeTracker;
+    private final UserTombstoneRepository userTombstoneRepository;
+    private final FacetCountRepository facetCountRepository;
+    private final EmailBloomFilter emailFilter;
 
     // AddressRepository can be omitted here if cascade is sufficient,
     // but useful if you need to directly manage addresses outside of user lifecycle or for complex updates.
     // For simplicity, we'll rely on cascading in this refactoring for basic CRUD.
 
-    private List<UserResponseDTO> convertAddressesToUniqueUserDTOs(List<Address> addresses) {
-        Set<User> uniqueUsers = new HashSet<>();
-        for (Address address : addresses) {
-            if (address.getUser() != null) {
-                // Fetch the full user entity to ensure all details are available
-                userRepository.findById(address.getUser().getId()).ifPresent(uniqueUsers::add);
-            }
-        }
-        logger.debug("Found {} unique users from matching addresses.", uniqueUsers.size());
-        return uniqueUsers.stream()
-                .map(UserMapper::convertToUserDTO)
-                .collect(Collectors.toList());
-    }
+    // Hard cap on the page size so a single request can never materialize the whole table
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Ids accepted by one multi-get; keeps the IN list (and the response) bounded
+    private static final int MAX_BATCH_SIZE = 100;
+
+    // Sort key of the delta sync tokens (KeysetCursor over change version and id)
+    private static final String CHANGES_CURSOR = "changes";
+    private static final Comparator<VersionedId> CHANGE_ORDER =
+            Comparator.comparingLong(VersionedId::version).thenComparing(VersionedId::id);
 
     @Autowired // Added back for clarity
-    public UserServiceImpl(UserRepository userRepository, AddressRepository addressRepository) {
+    public UserServiceImpl(UserRepository userRepository, AddressRepository addressRepository, PasswordHasher passwordHasher,
+                           UserResponseCache userResponseCache, AddressSearchCache addressSearchCache,
+                           UserChangeTracker changeTracker, UserTombstoneRepository userTombstoneRepository,
+                           FacetCountRepository facetCountRepository, EmailBloomFilter emailFilter) {
         this.userRepository = userRepository;
         this.addressRepository = addressRepository;
+        this.passwordHasher = passwordHasher;
+        this.userResponseCache = userResponseCache;
+        this.addressSearchCache = addressSearchCache;
+        this.changeTracker = changeTracker;
+        this.userTombstoneRepository = userTombstoneRepository;
+        this.facetCountRepository = facetCountRepository;
+        this.emailFilter = emailFilter;
     }
 
     @Override
-    public List<UserResponseDTO> getAllUsers() {
-        logger.debug("Fetching all users from the repository.");
-        List<User> users = userRepository.findAll();
-        logger.debug("Found {} users.", users.size());
-        return users.stream()
-                .map(UserMapper::convertToUserDTO) // Use UserMapper
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> getAllUsers(UserSort sort, String cursor, int limit) {
+        logger.debug("Fetching a page of users sorted by {} (limit {}).", sort.getParam(), limit);
+        return findUserPage(null, sort, cursor, limit);
     }
 
     @Override
+    @Transactional(readOnly = true) // Addresses and tags are mapped lazily; don't rely on open-session-in-view
     public Optional<UserResponseDTO> getUserById(Long id) {
         logger.debug("Attempting to find user with ID: {}.", id);
-        Optional<User> user = userRepository.findById(id);
+        // User with addresses, then all their tags: two statements instead of one per address
+        Optional<User> user = userRepository.findWithAddressesById(id);
         if (user.isPresent()) {
             logger.debug("User with ID: {} found.", id);
+            addressRepository.fetchTagsByUserIdIn(List.of(id));
             return Optional.of(UserMapper.convertToUserDTO(user.get())); // Use UserMapper
         } else {
             logger.debug("User with ID: {} not found in repository.", id);
@@ -76,86 +122,498 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true) // A miss answered by the email filter never takes a connection
+    public Optional<UserResponseDTO> getUserByEmail(String email) {
+        String emailKey = TextNormalizer.normalizeEmail(email);
+        if (emailKey == null || emailKey.isEmpty()) {
+            throw new BadRequestException("email must not be blank.");
+        }
+        if (!emailFilter.mightContain(emailKey)) {
+            logger.debug("Email lookup answered by the filter: no such user.");
+            return Optional.empty();
+        }
+        Optional<User> user = userRepository.findWithAddressesByEmailKey(emailKey);
+        user.ifPresent(found -> addressRepository.fetchTagsByUserIdIn(List.of(found.getId())));
+        return user.map(UserMapper::convertToUserDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserBatchDTO getUsersByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("ids must contain at least one user ID.");
+        }
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids)); // Request order, each id once
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " user IDs can be fetched at once.");
+        }
+        logger.debug("Fetching {} users by ID.", uniqueIds.size());
+
+        // Users with addresses, then all their tags: two statements whatever the number of ids
+        List<User> users = loadUsersInOrder(uniqueIds);
+        List<Long> missingIds = new ArrayList<>();
+        if (users.size() < uniqueIds.size()) {
+            int found = 0;
+            for (Long id : uniqueIds) {
+                if (found < users.size() && users.get(found).getId().equals(id)) {
+                    found++;
+                } else {
+                    missingIds.add(id);
+                }
+            }
+        }
+        logger.debug("Found {} users, {} IDs missing.", users.size(), missingIds.size());
+        return new UserBatchDTO(UserMapper.convertToUserDTOs(users), missingIds);
+    }
+
+    @Override
+    @Transactional
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) { // Changed to accept DTO
         logger.info("Saving new user: {} {}.", userRequestDTO.getFirstName(), userRequestDTO.getLastName());
         User userToCreate = UserMapper.convertToUserEntity(userRequestDTO); // Convert DTO to entity
+        // Only the hash is stored. Hashed before the first statement, so no connection is held meanwhile.
+        userToCreate.setPassword(passwordHasher.encode(userRequestDTO.getPassword()));
+        ensureEmailAvailable(userToCreate.getEmailKey(), null);
         if (userToCreate.getAddresses() != null) {
             userToCreate.getAddresses().forEach(address -> address.setUser(userToCreate));
         }
+        userToCreate.syncPrimaryCity();
+        changeTracker.changed(userToCreate);
 
         User savedUser = userRepository.save(userToCreate);
+        emailFilter.add(savedUser.getEmailKey());
+        addressSearchCache.evictMatching(AddressSearchCache.Footprint.of(savedUser).locations()); // The new user may join cached results
         logger.info("New user saved with ID: {}.", savedUser.getId());
         return UserMapper.convertToUserDTO(savedUser); // Convert saved entity to DTO
     }
 
     @Override
+    @Transactional
     public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO) { // Changed to accept DTO
         logger.info("Updating user with ID: {}.", id);
-        User existingUser = userRepository.findById(id)
+        PasswordUpdate passwordUpdate = preparePassword(id, userRequestDTO.getPassword());
+        User existingUser = findUserForUpdate(id);
+        changeTracker.changed(existingUser);
+        AddressSearchCache.Footprint before = AddressSearchCache.Footprint.of(existingUser);
+
+        logger.debug("Updating fields for user ID {}. Old first name: {}, New first name: {}",
+                id, existingUser.getFirstName(), userRequestDTO.getFirstName());
+
+        // Plain setters on the managed entity: unchanged values are not dirty, and @DynamicUpdate
+        // limits the UPDATE to the columns that did change
+        existingUser.setFirstName(userRequestDTO.getFirstName());
+        existingUser.setLastName(userRequestDTO.getLastName());
+        existingUser.setPhoneNumber(userRequestDTO.getPhoneNumber());
+        changeEmail(existingUser, userRequestDTO.getEmail());
+        updatePassword(existingUser, passwordUpdate);
+        mergeAddresses(existingUser, userRequestDTO.getAddresses());
+
+        User updatedUser = userRepository.saveAndFlush(existingUser); // Flush so new addresses carry their ids
+        addressSearchCache.evictChanged(before, AddressSearchCache.Footprint.of(updatedUser));
+        logger.info("User with ID: {} successfully updated.", updatedUser.getId());
+        return UserMapper.convertToUserDTO(updatedUser); // Convert updated entity to DTO
+    }
+
+    @Override
+    @Transactional
+    public UserResponseDTO patchUser(Long id, UserPatchDTO userPatchDTO) {
+        logger.info("Patching user with ID: {}.", id);
+        PasswordUpdate passwordUpdate = userPatchDTO.getPassword() == null
+                ? null : preparePassword(id, userPatchDTO.getPassword());
+        User existingUser = findUserForUpdate(id);
+        changeTracker.changed(existingUser);
+        AddressSearchCache.Footprint before = AddressSearchCache.Footprint.of(existingUser);
+
+        // Absent (null) fields are left untouched
+        if (userPatchDTO.getFirstName() != null) {
+            existingUser.setFirstName(userPatchDTO.getFirstName());
+        }
+        if (userPatchDTO.getLastName() != null) {
+            existingUser.setLastName(userPatchDTO.getLastName());
+        }
+        if (userPatchDTO.getPhoneNumber() != null) {
+            existingUser.setPhoneNumber(userPatchDTO.getPhoneNumber());
+        }
+        if (userPatchDTO.getEmail() != null) {
+            changeEmail(existingUser, userPatchDTO.getEmail());
+        }
+        if (passwordUpdate != null) {
+            updatePassword(existingUser, passwordUpdate);
+        }
+        if (userPatchDTO.getAddresses() != null) {
+            mergeAddresses(existingUser, userPatchDTO.getAddresses());
+        }
+
+        User patchedUser = userRepository.saveAndFlush(existingUser);
+        addressSearchCache.evictChanged(before, AddressSearchCache.Footprint.of(patchedUser)); // No-op for e.g. a phone change
+        logger.info("User with ID: {} successfully patched.", patchedUser.getId());
+        return UserMapper.convertToUserDTO(patchedUser);
+    }
+
+    // Locks the user's row, then loads its addresses and tags up front (three statements), so the merge below
+    // compares against initialized collections instead of lazily loading them one by one, and against data
+    // no other write can change before this one commits
+    private User findUserForUpdate(Long id) {
+        User user = findLockedWithAddresses(id)
                 .orElseThrow(() -> {
                     logger.error("Attempted to update non-existent user with ID: {}.", id);
                     return new UserNotFoundException("User with ID: " + id + " was not found.");
                 });
+        addressRepository.fetchTagsByUserIdIn(List.of(id));
+        userResponseCache.invalidate(id); // Cached GET /{id} body is about to become stale
+        return user;
+    }
 
-        logger.debug("Updating fields for user ID {}. Old first name: {}, New first name: {}",
-                id, existingUser.getFirstName(), userRequestDTO.getFirstName());
+    private Optional<User> findLockedWithAddresses(Long id) {
+        return userRepository.findAndLockById(id).flatMap(locked -> userRepository.findWithAddressesById(id));
+    }
 
-        User userDetails = UserMapper.convertToUserEntity(userRequestDTO);
-        BeanUtils.copyProperties(userDetails, existingUser, "id", "addresses"); // Exclude ID and addresses for copying
+    // Taken emails are rejected up front; the unique email key index still catches two writers racing for
+    // the same one (see GlobalExceptionHandler)
+    private void ensureEmailAvailable(String emailKey, Long ownId) {
+        if (emailKey == null || !emailFilter.mightContain(emailKey)) {
+            return;
+        }
+        boolean taken = ownId == null
+                ? userRepository.existsByEmailKey(emailKey)
+                : userRepository.existsByEmailKeyAndIdNot(emailKey, ownId);
+        if (taken) {
+            logger.warn("Rejected an email that another user already has.");
+            throw new DuplicateEmailException("A user with this email already exists.");
+        }
+    }
 
-        // Handle addresses:
-        existingUser.getAddresses().clear(); // Clear existing addresses (orphanRemoval will delete old ones)
-        if (userDetails.getAddresses() != null) {
-            userDetails.getAddresses().forEach(newAddress -> {
-                newAddress.setUser(existingUser); // Set back-reference
-                existingUser.getAddresses().add(newAddress); // Add new/updated addresses
-            });
+    private void changeEmail(User user, String email) {
+        String emailKey = TextNormalizer.normalizeEmail(email);
+        if (!emailKey.equals(user.getEmailKey())) {
+            ensureEmailAvailable(emailKey, user.getId());
+            emailFilter.add(emailKey);
         }
+        user.setEmail(email);
+    }
 
-        User updatedUser = userRepository.save(existingUser);
-        logger.info("User with ID: {} successfully updated.", updatedUser.getId());
-        return UserMapper.convertToUserDTO(updatedUser); // Convert updated entity to DTO
+    // Re-hashing a salted password always yields a new value, so keep the stored hash when the password did not
+    // change, unless it was made with a lower strength than configured (lazy upgrade, the raw value is at hand).
+    // Hashing is slow, so it runs against an unlocked read of the stored hash, before the row lock and the
+    // change counter are taken; updatePassword then only assigns the result. Null for a missing user.
+    private PasswordUpdate preparePassword(Long id, String rawPassword) {
+        return userRepository.findPasswordById(id)
+                .map(stored -> new PasswordUpdate(rawPassword, stored,
+                        passwordHasher.matches(rawPassword, stored) && !passwordHasher.needsRehash(stored)
+                                ? stored
+                                : passwordHasher.encode(rawPassword))) // Only the hash is stored
+                .orElse(null);
+    }
+
+    private void updatePassword(User user, PasswordUpdate update) {
+        if (update.storedHash().equals(user.getPassword())) {
+            user.setPassword(update.newHash());
+        } else {
+            // Another write changed the password between the read and the lock: the decision above is stale
+            user.setPassword(passwordHasher.encode(update.rawPassword()));
+        }
+    }
+
+    private record PasswordUpdate(String rawPassword, String storedHash, String newHash) {
+    }
+
+    // Diff-based address merge: incoming addresses are matched to existing ones by id. Matched rows are
+    // updated in place (no statement if nothing changed), addresses without a known id are inserted, and
+    // existing addresses missing from the request are removed (orphanRemoval deletes them and their tags).
+    private void mergeAddresses(User user, List<AddressRequestDTO> incoming) {
+        Map<Long, Address> existingById = new HashMap<>();
+        for (Address address : user.getAddresses()) {
+            existingById.put(address.getId(), address);
+        }
+
+        List<Address> added = new ArrayList<>();
+        if (incoming != null) {
+            for (AddressRequestDTO addressRequestDTO : incoming) {
+                Address existing = addressRequestDTO.getId() == null ? null : existingById.remove(addressRequestDTO.getId());
+                if (existing != null) {
+                    UserMapper.updateAddressEntity(existing, addressRequestDTO);
+                } else {
+                    // Unknown ids (e.g. another user's address) are never touched, they become a new address
+                    Address newAddress = UserMapper.convertToAddressEntity(addressRequestDTO);
+                    newAddress.setUser(user); // Set back-reference
+                    added.add(newAddress);
+                }
+            }
+        }
+
+        // Whatever was not matched is no longer wanted (by id: Address.equals compares field values)
+        user.getAddresses().removeIf(address -> existingById.containsKey(address.getId()));
+        user.getAddresses().addAll(added);
+        logger.debug("Address merge for user ID {}: {} added, {} removed.", user.getId(), added.size(), existingById.size());
+        user.syncPrimaryCity();
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
         logger.info("Attempting to delete user with ID: {}.", id);
-        if (!userRepository.existsById(id)) {
-            logger.error("Cannot delete: User with ID: {} does not exist.", id);
-            throw new UserNotFoundException("User with ID: " + id + " was not found.");
-        }
-        userRepository.deleteById(id);
+        // Locked and loaded with its addresses and tags: the cascade needs them anyway, and so do the search
+        // cache eviction and the facet counts
+        User user = findLockedWithAddresses(id)
+                .orElseThrow(() -> {
+                    logger.error("Cannot delete: User with ID: {} does not exist.", id);
+                    return new UserNotFoundException("User with ID: " + id + " was not found.");
+                });
+        addressRepository.fetchTagsByUserIdIn(List.of(id));
+        addressSearchCache.evictMatching(AddressSearchCache.Footprint.of(user).locations());
+        changeTracker.deleted(user);
+        userRepository.delete(user);
+        userResponseCache.invalidate(id);
         logger.info("User with ID: {} deleted successfully.", id);
     }
 
     @Override
-    public List<UserResponseDTO> findUsersByAddressCityAndState(String city, String state) { // Removed Pageable
-        logger.info("Searching for users with address city '{}' and state '{}'.", city, state);
-        List<Address> matchingAddresses = addressRepository.findByCityAndState(city, state);
-        return convertAddressesToUniqueUserDTOs(matchingAddresses);
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> findUsersByAddressCityAndState(String city, String state, MatchMode match, UserSort sort, String cursor, int limit) {
+        logger.info("Searching for users with address city '{}' and state '{}' ({} match).", city, state, match);
+        return findUserPage(AddressSearchCriteria.cityAndState(city, state, match), sort, cursor, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> findUsersByAddressCity(String city, MatchMode match, UserSort sort, String cursor, int limit) {
+        logger.info("Searching for users with address city '{}' ({} match).", city, match);
+        return findUserPage(AddressSearchCriteria.city(city, match), sort, cursor, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> findUsersByAddressState(String state, MatchMode match, UserSort sort, String cursor, int limit) {
+        logger.info("Searching for users with address state '{}' ({} match).", state, match);
+        return findUserPage(AddressSearchCriteria.state(state, match), sort, cursor, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> findUsersByAddressCityOrState(String city, String state, MatchMode match, UserSort sort, String cursor, int limit) { // New method
+        logger.info("Searching for users with address city '{}' OR state '{}' ({} match).", city, state, match);
+        return findUserPage(AddressSearchCriteria.cityOrState(city, state, match), sort, cursor, limit);
     }
 
     @Override
-    public List<UserResponseDTO> findUsersByAddressCity(String city) { // Removed Pageable
-        logger.info("Searching for users with address city '{}'.", city);
-        List<Address> matchingAddresses = addressRepository.findByCity(city);
-        return convertAddressesToUniqueUserDTOs(matchingAddresses);
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> findUsersByAddressZipCode(String zipCode, MatchMode match, UserSort sort, String cursor, int limit) {
+        logger.info("Searching for users with address zip code '{}' ({} match).", zipCode, match);
+        return findUserPage(AddressSearchCriteria.zipCode(zipCode, match), sort, cursor, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummaryDTO> findUserSummaries(AddressSearchCriteria criteria, UserFields fields, UserSort sort, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor, sort.getParam());
+        int pageSize = clampPageSize(limit);
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<Tuple> rows = userRepository.findUserProjectionPage(criteria, sort, after, pageSize + 1, fields);
+
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Tuple last = rows.get(pageSize - 1);
+            String value = switch (sort) {
+                case ID -> null;
+                case LAST_NAME -> last.get("lastName", String.class);
+                case CITY -> last.get("primaryCity", String.class);
+            };
+            next = new KeysetCursor(sort.getParam(), last.get("id", Long.class), value).encode();
+        }
+
+        List<UserSummaryDTO> summaries = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            summaries.add(toSummary(row, fields));
+        }
+        logger.debug("Found {} user summaries for this page.", summaries.size());
+        return new CursorPage<>(summaries, next);
+    }
+
+    private static UserSummaryDTO toSummary(Tuple row, UserFields fields) {
+        UserSummaryDTO summary = new UserSummaryDTO();
+        summary.setId(row.get("id", Long.class));
+        if (fields.includes(UserFields.Field.FIRST_NAME)) {
+            summary.setFirstName(row.get("firstName", String.class));
+        }
+        if (fields.includes(UserFields.Field.LAST_NAME)) {
+            summary.setLastName(row.get("lastName", String.class));
+        }
+        if (fields.includes(UserFields.Field.FULL_NAME)) {
+            summary.setFullName(row.get("firstName", String.class) + " " + row.get("lastName", String.class)); // As UserResponseDTO
+        }
+        if (fields.includes(UserFields.Field.EMAIL)) {
+            summary.setEmail(row.get("email", String.class));
+        }
+        if (fields.includes(UserFields.Field.PHONE_NUMBER)) {
+            summary.setPhoneNumber(row.get("phoneNumber", String.class));
+        }
+        return summary;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserChangesDTO getChanges(String since, int limit) {
+        KeysetCursor after = KeysetCursor.decode(since, CHANGES_CURSOR);
+        long afterVersion = after == null ? -1 : parseVersion(after);
+        long afterId = after == null ? 0 : after.getId();
+        int pageSize = clampPageSize(limit);
+        // Writes and deletions are two streams in (version, id) order: take one page more than needed of
+        // each, merge them and keep the first page
+        Pageable firstRows = PageRequest.of(0, pageSize + 1);
+        List<VersionedId> deletions = userTombstoneRepository.findDeletedAfter(afterVersion, afterId, firstRows);
+        List<VersionedId> changes = new ArrayList<>(userRepository.findChangedAfter(afterVersion, afterId, firstRows));
+        changes.addAll(deletions);
+        changes.sort(CHANGE_ORDER);
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        Set<VersionedId> deleted = new HashSet<>(deletions);
+        List<Long> changedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (VersionedId change : changes) {
+            (deleted.contains(change) ? deletedIds : changedIds).add(change.id());
+        }
+        // An unchanged database hands back the token it was given
+        String next = changes.isEmpty()
+                ? new KeysetCursor(CHANGES_CURSOR, afterId, Long.toString(afterVersion)).encode()
+                : changeCursor(changes.get(changes.size() - 1)).encode();
+        // A user deleted after the id query is left out here; its deletion comes with a later version
+        List<User> users = loadUsersInOrder(changedIds);
+        logger.debug("Delta sync: {} changed and {} deleted users (more: {}).", users.size(), deletedIds.size(), hasMore);
+        return new UserChangesDTO(UserMapper.convertToUserDTOs(users), deletedIds, next, hasMore);
     }
 
     @Override
-    public List<UserResponseDTO> findUsersByAddressState(String state) { // Removed Pageable
-        logger.info("Searching for users with address state '{}'.", state);
-        List<Address> matchingAddresses = addressRepository.findByState(state);
-        return convertAddressesToUniqueUserDTOs(matchingAddresses);
+    @Transactional(readOnly = true)
+    public List<FacetBucketDTO> getFacets(String by, String state, int limit) {
+        FacetCount.Dimension dimension = facetDimension(by);
+        if (state != null && dimension != FacetCount.Dimension.CITY) {
+            throw new BadRequestException("state can only narrow by=city.");
+        }
+        String parentKey = state == null ? null : TextNormalizer.normalize(state);
+        // Read from the kept counts: one row per bucket, however many users there are
+        List<FacetCount> buckets = facetCountRepository.findLargest(dimension, parentKey, PageRequest.of(0, clampPageSize(limit)));
+        List<FacetBucketDTO> facets = new ArrayList<>(buckets.size());
+        for (FacetCount bucket : buckets) {
+            String bucketState = dimension == FacetCount.Dimension.CITY ? bucket.getParentLabel() : null;
+            facets.add(new FacetBucketDTO(bucket.getLabel(), bucketState, bucket.getUserCount()));
+        }
+        logger.debug("Returning {} facet buckets by {}.", facets.size(), dimension);
+        return facets;
+    }
+
+    private static FacetCount.Dimension facetDimension(String by) {
+        try {
+            return FacetCount.Dimension.valueOf(by.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported facet '" + by + "'. Supported values are: state, city, country, tag.");
+        }
     }
 
     @Override
-    public List<UserResponseDTO> findUsersByAddressCityOrState(String city, String state) { // New method
-        logger.info("Searching for users with address city '{}' OR state '{}'.", city, state);
-        List<Address> matchingAddresses = addressRepository.findByCityOrState(city, state);
-        return convertAddressesToUniqueUserDTOs(matchingAddresses);
+    @Transactional(readOnly = true)
+    public CursorPage<AddressResponseDTO> getAddressesSortedByCity(String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor, UserSort.CITY.getParam());
+        int pageSize = clampPageSize(limit);
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        Pageable firstRows = PageRequest.of(0, pageSize + 1);
+        List<Address> addresses = after == null
+                ? addressRepository.findFirstPageSortedByCity(firstRows)
+                : addressRepository.findPageSortedByCityAfter(after.getValue(), after.getId(), firstRows);
+
+        String next = null;
+        if (addresses.size() > pageSize) {
+            addresses = addresses.subList(0, pageSize);
+            Address last = addresses.get(pageSize - 1);
+            next = new KeysetCursor(UserSort.CITY.getParam(), last.getId(), last.getCity()).encode();
+        }
+        if (!addresses.isEmpty()) {
+            addressRepository.fetchTagsByIdIn(addresses.stream().map(Address::getId).toList());
+        }
+        logger.debug("Returning {} addresses sorted by city.", addresses.size());
+        return new CursorPage<>(UserMapper.convertToAddressDTOs(addresses), next);
+    }
+
+    private CursorPage<UserResponseDTO> findUserPage(AddressSearchCriteria criteria, UserSort sort, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor, sort.getParam());
+        int pageSize = clampPageSize(limit);
+        // Address searches repeat a lot, so their id pages are cached; the users are always loaded fresh
+        AddressSearchCache.IdPage page = criteria == null
+                ? queryIdPage(null, sort, after, pageSize)
+                : addressSearchCache.get(criteria, sort, cursor, pageSize, () -> queryIdPage(criteria, sort, after, pageSize));
+        List<User> users = loadUsersInOrder(page.userIds());
+        logger.debug("Found {} users for this page.", users.size());
+        return new CursorPage<>(UserMapper.convertToUserDTOs(users), page.next());
     }
 
+    private AddressSearchCache.IdPage queryIdPage(AddressSearchCriteria criteria, UserSort sort, KeysetCursor after, int pageSize) {
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<User> users = userRepository.findUserPage(criteria, sort, after, pageSize + 1);
+
+        String next = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            next = cursorAfter(users.get(pageSize - 1), sort).encode();
+        }
+        List<Long> userIds = new ArrayList<>(users.size());
+        for (User user : users) {
+            userIds.add(user.getId());
+        }
+        return new AddressSearchCache.IdPage(userIds, next);
+    }
 
+    // Initializes addresses and their tags for a whole page in two statements instead of one lazy load per
+    // user plus one per address when the mapper walks the graph, and returns the users in page order.
+    // Users just returned by the page query are already in the persistence context and are reused.
+    private List<User> loadUsersInOrder(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> usersById = new HashMap<>(userIds.size() * 2);
+        for (User user : userRepository.findAllWithAddressesByIdIn(userIds)) {
+            usersById.put(user.getId(), user);
+        }
+        addressRepository.fetchTagsByUserIdIn(userIds);
+
+        List<User> users = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User user = usersById.get(userId);
+            if (user != null) { // Deleted since the page was cached, or an unknown id of a multi-get
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    private static KeysetCursor cursorAfter(User last, UserSort sort) {
+        String value = switch (sort) {
+            case ID -> null;
+            case LAST_NAME -> last.getLastName();
+            case CITY -> last.getPrimaryCity();
+        };
+        return new KeysetCursor(sort.getParam(), last.getId(), value);
+    }
+
+    private static KeysetCursor changeCursor(VersionedId change) {
+        return new KeysetCursor(CHANGES_CURSOR, change.id(), Long.toString(change.version()));
+    }
+
+    private static long parseVersion(KeysetCursor token) {
+        try {
+            return Long.parseLong(token.getValue());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Malformed sync token.");
+        }
+    }
+
+    private static int clampPageSize(int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1.");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 
 }
@@ -0,0 +1,91 @@
+package com.gevernova.addressbook.cache;
+
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.AddressSearchCriteria;
+import com.gevernova.addressbook.repository.MatchMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddressSearchCacheTest {
+
+	private final AddressSearchCache cache = new AddressSearchCache(100, Duration.ofMinutes(5), Duration.ZERO, new SimpleMeterRegistry());
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void addressWriteEvictsOnlySearchesItCouldMatch() {
+		AddressSearchCriteria austin = AddressSearchCriteria.city("Austin", MatchMode.EXACT);
+		AddressSearchCriteria texas = AddressSearchCriteria.state("tx", MatchMode.EXACT);
+		AddressSearchCriteria cityPrefix = AddressSearchCriteria.city("Da", MatchMode.PREFIX);
+		AddressSearchCriteria seattleOrWashington = AddressSearchCriteria.cityOrState("Seattle", "WA", MatchMode.EXACT);
+		search(austin);
+		search(texas);
+		search(cityPrefix);
+		search(seattleOrWashington);
+
+		// A user moves from Austin, TX to Dallas, TX
+		cache.evictChanged(
+				new AddressSearchCache.Footprint("Doe", "Austin", Set.of(new AddressSearchCache.Location("austin", "tx", "73301"))),
+				new AddressSearchCache.Footprint("Doe", "Dallas", Set.of(new AddressSearchCache.Location("dallas", "tx", "75001"))));
+		loads.set(0);
+
+		search(austin);
+		search(texas);
+		search(cityPrefix);
+		search(seattleOrWashington);
+		assertThat(loads).hasValue(3); // Everything but the Seattle/WA search was reloaded
+	}
+
+	@Test
+	void writeThatSearchesCannotSeeKeepsTheCache() {
+		AddressSearchCriteria texas = AddressSearchCriteria.state("TX", MatchMode.EXACT);
+		search(texas);
+
+		AddressSearchCache.Footprint footprint =
+				new AddressSearchCache.Footprint("Doe", "Austin", Set.of(new AddressSearchCache.Location("austin", "tx", "73301")));
+		cache.evictChanged(footprint, footprint); // e.g. a phone number PATCH
+		loads.set(0);
+
+		search(texas);
+		assertThat(loads).hasValue(0);
+	}
+
+	@Test
+	void exactSearchesAreFoundThroughTheirIndexedTerm() {
+		AddressSearchCriteria zip = AddressSearchCriteria.zipCode("73301", MatchMode.EXACT);
+		AddressSearchCriteria austinTexas = AddressSearchCriteria.cityAndState("Austin", "TX", MatchMode.EXACT);
+		search(zip);
+		search(austinTexas);
+
+		// Same city, other state: found through the city, but the search can't match it
+		cache.evictMatching(List.of(new AddressSearchCache.Location("austin", "mn", "55912")));
+		loads.set(0);
+		search(zip);
+		search(austinTexas);
+		assertThat(loads).hasValue(0);
+
+		cache.evictMatching(List.of(new AddressSearchCache.Location("austin", "tx", "73301")));
+		search(zip);
+		search(austinTexas);
+		assertThat(loads).hasValue(2);
+
+		// Cached again after the eviction, so evicted again by the next write
+		cache.evictMatching(List.of(new AddressSearchCache.Location("austin", "tx", "73301")));
+		search(zip);
+		search(austinTexas);
+		assertThat(loads).hasValue(4);
+	}
+
+	private void search(AddressSearchCriteria criteria) {
+		cache.get(criteria, UserSort.ID, null, 20, () -> {
+			loads.incrementAndGet();
+			return new AddressSearchCache.IdPage(List.of(1L), null);
+		});
+	}
+}
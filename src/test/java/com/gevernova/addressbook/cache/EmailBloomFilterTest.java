@@ -0,0 +1,54 @@
+package com.gevernova.addressbook.cache;
+
+import com.gevernova.addressbook.dto.UserChangeEventDTO;
+import com.gevernova.addressbook.entity.OutboxEvent;
+import com.gevernova.addressbook.repository.UserRepository;
+import com.gevernova.addressbook.service.UserChangeBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailBloomFilterTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+
+	private final EmailBloomFilter filter = new EmailBloomFilter(userRepository, mock(PlatformTransactionManager.class),
+			0.01, 1000, new SimpleMeterRegistry());
+
+	@Test
+	void rebuildIsPublishedWhenNoRelayFailed() {
+		when(userRepository.count()).thenReturn(1L);
+		when(userRepository.streamEmailKeys()).thenAnswer(invocation -> Stream.of("stored@example.com"));
+
+		filter.rebuild();
+
+		assertThat(filter.mightContain("stored@example.com")).isTrue();
+		assertThat(filter.mightContain("absent@example.com")).isFalse();
+	}
+
+	@Test
+	void rebuildOverlappingAFailedRelayIsDiscarded() {
+		when(userRepository.count()).thenReturn(1L);
+		when(userRepository.findEmailKeysByIdIn(anyCollection())).thenThrow(new QueryTimeoutException("timed out"));
+		// The relay fails while the scan runs, so the scan can't be trusted to hold that user's email
+		when(userRepository.streamEmailKeys()).thenAnswer(invocation -> {
+			filter.onChanges(new UserChangeBatch(List.of(
+					new UserChangeEventDTO("2-2", OutboxEvent.Type.UPDATED, 7L, 2, Instant.now()))));
+			return Stream.of("stored@example.com");
+		});
+
+		filter.rebuild();
+
+		assertThat(filter.mightContain("relayed@example.com")).isTrue();
+	}
+}
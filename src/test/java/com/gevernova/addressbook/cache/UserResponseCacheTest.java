@@ -0,0 +1,74 @@
+package com.gevernova.addressbook.cache;
+
+import com.gevernova.addressbook.exceptionhandler.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserResponseCacheTest {
+
+	private final UserResponseCache cache =
+			new UserResponseCache(1 << 20, Duration.ofMinutes(10), Duration.ZERO, new SimpleMeterRegistry());
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void hitSkipsTheLoaderAndInvalidateDropsTheEntry() {
+		byte[] first = cache.get(1L, this::load);
+		assertThat(cache.get(1L, this::load)).isSameAs(first);
+		assertThat(loads).hasValue(1);
+
+		cache.invalidate(1L);
+		cache.get(1L, this::load);
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void bodyLoadedWhileAWriteInvalidatesIsReturnedButNotStored() {
+		// The write commits while the old row is being serialized
+		byte[] stale = cache.get(1L, id -> {
+			cache.invalidate(id);
+			return load(id);
+		});
+
+		assertThat(stale).isNotNull();
+		cache.get(1L, this::load);
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		assertThatThrownBy(() -> cache.get(1L, id -> {
+			throw new UserNotFoundException("User with ID: " + id + " was not found.");
+		})).isInstanceOf(UserNotFoundException.class);
+
+		cache.get(1L, this::load);
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void recentWriteIsNotStoredWithinTheReplicaLag() {
+		UserResponseCache lagging = new UserResponseCache(1 << 20, Duration.ofMinutes(10), Duration.ofMinutes(1),
+				new SimpleMeterRegistry());
+		lagging.invalidate(1L);
+
+		// A replica may still serve the row from before the write
+		lagging.get(1L, this::load);
+		lagging.get(1L, this::load);
+		assertThat(loads).hasValue(2);
+
+		lagging.get(2L, this::load);
+		lagging.get(2L, this::load);
+		assertThat(loads).hasValue(3);
+	}
+
+	private byte[] load(long id) {
+		loads.incrementAndGet();
+		return ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,88 @@
+package com.gevernova.addressbook.config;
+
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Connection gate and read replicas together. The "replica" is a second pool on the primary's own database:
+// this test is about how the DataSources stack, not about what a replica returns.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:connectiongate",
+		"addressbook.db-gate.enabled=true",
+		"addressbook.db-gate.permits=2",
+		"addressbook.db-gate.acquire-timeout=1s",
+		"addressbook.read-replicas.enabled=true",
+		"addressbook.read-replicas.replicas[0].url=jdbc:h2:mem:connectiongate"})
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class ConnectionGateTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void gateGuardsThePrimaryBehindTheReplicaRouter() {
+		assertThat(gate()).isInstanceOf(ConnectionLimitingDataSource.class);
+	}
+
+	@Test
+	void writeGets503WhileEveryPermitIsTaken() throws Exception {
+		Long id = userRepository.save(user()).getId();
+		ConnectionLimitingDataSource gate = (ConnectionLimitingDataSource) gate();
+
+		try (Connection first = gate.getConnection(); Connection second = gate.getConnection()) {
+			assertThat(gate.getAvailablePermits()).isZero();
+			mockMvc.perform(patch("/api/users/{id}", id)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("{\"phoneNumber\":\"5550000002\"}"))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+		}
+
+		// Closing the connections gives the permits back
+		mockMvc.perform(patch("/api/users/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"phoneNumber\":\"5550000002\"}"))
+				.andExpect(status().isOk());
+	}
+
+	// Lazy proxy -> replica router -> gate -> primary pool
+	private DataSource gate() {
+		assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+		DataSource router = ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+		assertThat(router).isInstanceOf(ReadReplicaRoutingDataSource.class);
+		return ((ReadReplicaRoutingDataSource) router).getResolvedDefaultDataSource();
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setFirstName("Gary");
+		user.setLastName("Gate");
+		user.setPhoneNumber("5550000001");
+		user.setEmail("gary.gate+" + System.nanoTime() + "@example.com");
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,105 @@
+package com.gevernova.addressbook.config;
+
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.repository.UserRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two H2 databases stand in for primary and replica. The replica gets a snapshot of the primary and is never
+// updated again, so whichever phone number a read returns tells which database served it. The primary is a
+// database of its own, as the context is: a second context on the shared one would recreate its schema.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:replicarouting",
+		"addressbook.read-replicas.enabled=true",
+		"addressbook.read-replicas.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+		"addressbook.read-replicas.max-lag=1m",
+		// Keep Hibernate's caches out of the way of the reads being compared
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class ReadReplicaRoutingTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:addressbook-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private Long userId;
+
+	@BeforeEach
+	void seedPrimaryAndCopyToReplica() {
+		User user = new User();
+		user.setFirstName("Rita");
+		user.setLastName("Replica");
+		user.setPhoneNumber("5550000001");
+		user.setEmail("rita.replica+" + System.nanoTime() + "@example.com"); // Emails are unique; one user per test
+		user.setPassword("secret");
+		userId = userRepository.save(user).getId();
+
+		JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		replica.execute("DROP ALL OBJECTS");
+		// Outside a transaction, so this reads the primary
+		for (String statement : new JdbcTemplate(dataSource).queryForList("SCRIPT NOPASSWORDS NOSETTINGS", String.class)) {
+			replica.execute(statement);
+		}
+	}
+
+	@Test
+	void readsGoToTheReplicaAndWritesToThePrimary() throws Exception {
+		mockMvc.perform(patch("/api/users/{id}", userId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"phoneNumber\":\"5550000002\"}"))
+				.andExpect(status().isOk());
+
+		// The replica hasn't seen the patch
+		mockMvc.perform(get("/api/users/{id}", userId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.phoneNumber").value("5550000001"));
+		// Outside a transaction: the primary has it
+		assertThat(new JdbcTemplate(dataSource).queryForObject("select phone_number from app_user where id = ?", String.class, userId))
+				.isEqualTo("5550000002");
+	}
+
+	@Test
+	void clientReadsItsOwnWriteFromThePrimary() throws Exception {
+		MvcResult write = mockMvc.perform(patch("/api/users/{id}", userId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"phoneNumber\":\"5550000003\"}"))
+				.andExpect(status().isOk())
+				.andReturn();
+		Cookie readPrimary = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+		assertThat(readPrimary).isNotNull();
+
+		// A stale body read from the replica by another client must not be cached for this one
+		mockMvc.perform(get("/api/users/{id}", userId))
+				.andExpect(jsonPath("$.data.phoneNumber").value("5550000001"));
+		mockMvc.perform(get("/api/users/{id}", userId).cookie(readPrimary))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.phoneNumber").value("5550000003"));
+	}
+}
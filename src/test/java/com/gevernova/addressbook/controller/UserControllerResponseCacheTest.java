@@ -0,0 +1,104 @@
+package com.gevernova.addressbook.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.ResponseDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.gevernova.addressbook.metrics.SqlStatementAssertions.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /api/users/{id} through UserResponseCache. A database of its own, like the other MockMvc context.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:responsecache")
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class UserControllerResponseCacheTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void hitReturnsTheBytesOfAnUncachedSerialization() throws Exception {
+		Long id = userService.createUser(request("hit.cache@example.com", "Hit")).getId();
+		byte[] uncached = objectMapper.writeValueAsBytes(ResponseDTO.builder()
+				.message("Fetched user with ID: " + id)
+				.data(userService.getUserById(id).orElseThrow())
+				.build());
+
+		byte[] loaded = body(id);
+		byte[][] hit = new byte[1][];
+		int statements = countStatements(() -> {
+			try {
+				hit[0] = body(id);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		assertThat(loaded).isEqualTo(uncached);
+		assertThat(hit[0]).isEqualTo(uncached);
+		assertThat(statements).isZero();
+	}
+
+	@Test
+	void putPatchAndDeleteInvalidateTheCachedBody() throws Exception {
+		Long id = userService.createUser(request("write.cache@example.com", "Before")).getId();
+		mockMvc.perform(get("/api/users/{id}", id)).andExpect(jsonPath("$.data.firstName").value("Before"));
+
+		mockMvc.perform(put("/api/users/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsBytes(request("write.cache@example.com", "Put"))))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/{id}", id)).andExpect(jsonPath("$.data.firstName").value("Put"));
+
+		mockMvc.perform(patch("/api/users/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"phoneNumber\":\"5550000042\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/{id}", id)).andExpect(jsonPath("$.data.phoneNumber").value("5550000042"));
+
+		mockMvc.perform(delete("/api/users/{id}", id)).andExpect(status().is2xxSuccessful());
+		mockMvc.perform(get("/api/users/{id}", id)).andExpect(status().isNotFound());
+	}
+
+	private byte[] body(Long id) throws Exception {
+		return mockMvc.perform(get("/api/users/{id}", id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+	}
+
+	private static UserRequestDTO request(String email, String firstName) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName(firstName);
+		request.setLastName("Cache");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(email);
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>(List.of(new AddressRequestDTO(null, "1 Cache Lane", null, "Cacheton", "IL",
+				"12345", "USA", new ArrayList<>(List.of("cache"))))));
+		return request;
+	}
+}
@@ -0,0 +1,70 @@
+package com.gevernova.addressbook.controller;
+
+import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The dev profile rejects requests over their addressbook.sql-budget, so any N+1 on these endpoints fails here.
+// A context of its own (MockMvc), so a database of its own too: it would otherwise recreate the shared schema.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sqlbudget")
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class UserControllerSqlBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Long userId;
+
+	@BeforeEach
+	void seedUsers() {
+		for (int i = 0; i < 20; i++) {
+			User user = new User();
+			user.setFirstName("Budget" + i);
+			user.setLastName("Tester" + i);
+			user.setPhoneNumber("5550000000");
+			user.setEmail("budget" + i + "@example.com");
+			user.setPassword("secret");
+			for (int j = 0; j < 3; j++) {
+				Address address = new Address();
+				address.setStreet(j + " Budget Road");
+				address.setCity("Budgetville" + j);
+				address.setState("BT");
+				address.setZipCode("0000" + j);
+				address.setCountry("USA");
+				address.setTags(new ArrayList<>(List.of("home", "tag" + j)));
+				address.setUser(user);
+				user.getAddresses().add(address);
+			}
+			user.syncPrimaryCity();
+			userId = userRepository.save(user).getId();
+		}
+	}
+
+	@Test
+	void readEndpointsStayWithinTheirStatementBudget() throws Exception {
+		mockMvc.perform(get("/api/users").param("limit", "20")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/users").param("sort", "city").param("limit", "20")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/{id}", userId)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/addresses").param("limit", "50")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/search-by-address").param("state", "BT").param("limit", "20")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/search-by-address").param("city", "budgetville1").param("state", "BT")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/search").param("q", "budget")).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,23 @@
+package com.gevernova.addressbook.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Test helper: counts the SQL statements Hibernate prepares on the calling thread while an action runs
+public final class SqlStatementAssertions {
+
+	private SqlStatementAssertions() {
+	}
+
+	public static int countStatements(Runnable action) {
+		RequestQueryStats.reset();
+		action.run();
+		return RequestQueryStats.statements();
+	}
+
+	public static void assertStatementsAtMost(int budget, Runnable action) {
+		int statements = countStatements(action);
+		assertThat(statements)
+				.as("SQL statements prepared (N+1 regression?)")
+				.isLessThanOrEqualTo(budget);
+	}
+}
@@ -0,0 +1,114 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.FacetBucketDTO;
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class FacetCountsTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private FacetCounter facetCounter;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void countsFollowWritesAndMatchARecount() {
+		// Other tests of this context seed users through the repository, which the counts don't follow
+		facetCounter.reconcile();
+
+		// Two addresses in one city and two spellings of one tag still count the user once
+		Long first = userService.createUser(request("First",
+				address("Springfield", "Facetland", "Facet-VIP"),
+				address("springfield ", "Facetland", "facet-vip"),
+				address("Shelbyville", "Facetland"))).getId();
+		Long second = userService.createUser(request("Second", address("Springfield", "FACETLAND", "facet-vip"))).getId();
+
+		assertThat(userService.getFacets("city", "facetland", 10))
+				.extracting(FacetBucketDTO::getValue, FacetBucketDTO::getUsers)
+				.containsExactly(tuple("Springfield", 2L), tuple("Shelbyville", 1L));
+		assertThat(users("state", "facetland")).isEqualTo(2);
+		assertThat(users("tag", "facet-vip")).isEqualTo(2);
+
+		// Moving the second user out of Springfield, then deleting the first
+		UserPatchDTO move = new UserPatchDTO();
+		move.setAddresses(List.of(address("Capital City", "Facetland")));
+		userService.patchUser(second, move);
+		assertThat(userService.getFacets("city", "facetland", 10))
+				.extracting(FacetBucketDTO::getValue, FacetBucketDTO::getUsers)
+				.containsExactly(tuple("Capital City", 1L), tuple("Shelbyville", 1L), tuple("Springfield", 1L));
+		userService.deleteUser(first);
+		assertThat(userService.getFacets("city", "facetland", 10))
+				.extracting(FacetBucketDTO::getValue, FacetBucketDTO::getUsers)
+				.containsExactly(tuple("Capital City", 1L));
+		assertThat(users("tag", "facet-vip")).isZero();
+
+		// The kept counts agree with a GROUP BY recount of everything written so far
+		double repairsBefore = meterRegistry.counter("addressbook.facets.repairs").count();
+		facetCounter.reconcile();
+		assertThat(meterRegistry.counter("addressbook.facets.repairs").count()).isEqualTo(repairsBefore);
+
+		// A bucket changed behind the application's back is repaired
+		transactionTemplate.executeWithoutResult(status ->
+				jdbcTemplate.update("UPDATE facet_count SET user_count = 7 WHERE dimension = 'CITY' AND bucket_key = 'capital city'"));
+		facetCounter.reconcile();
+		assertThat(meterRegistry.counter("addressbook.facets.repairs").count()).isEqualTo(repairsBefore + 1);
+		assertThat(userService.getFacets("city", "facetland", 10))
+				.extracting(FacetBucketDTO::getValue, FacetBucketDTO::getUsers)
+				.containsExactly(tuple("Capital City", 1L));
+	}
+
+	private long users(String by, String value) {
+		return userService.getFacets(by, null, 500).stream()
+				.filter(bucket -> bucket.getValue().equalsIgnoreCase(value))
+				.mapToLong(FacetBucketDTO::getUsers)
+				.sum();
+	}
+
+	private static UserRequestDTO request(String firstName, AddressRequestDTO... addresses) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName(firstName);
+		request.setLastName("Facet");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(firstName.toLowerCase() + ".facet@example.com");
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>(List.of(addresses)));
+		return request;
+	}
+
+	private static AddressRequestDTO address(String city, String state, String... tags) {
+		AddressRequestDTO address = new AddressRequestDTO();
+		address.setStreet("1 Facet Road");
+		address.setCity(city);
+		address.setState(state);
+		address.setZipCode("12345");
+		address.setCountry("USA");
+		address.setTags(new ArrayList<>(List.of(tags)));
+		return address;
+	}
+}
@@ -0,0 +1,78 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.exceptionhandler.PasswordHashingBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+	@Test
+	void fullQueueRejectsSingleHashesButBatchesWait() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordEncoder slowEncoder = new BCryptPasswordEncoder(4) {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.encode(rawPassword);
+			}
+		};
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		PasswordHasher hasher = new PasswordHasher(slowEncoder, 1, 1, meterRegistry);
+		try {
+			CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("running"));
+			waitUntil(() -> meterRegistry.get("addressbook.password.hash.active").gauge().value() == 1);
+			CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("queued"));
+			waitUntil(() -> meterRegistry.get("addressbook.password.hash.queue").gauge().value() == 1);
+
+			assertThatThrownBy(() -> hasher.encode("rejected")).isInstanceOf(PasswordHashingBusyException.class);
+			assertThat(meterRegistry.get("addressbook.password.hash.rejected").counter().count()).isEqualTo(1);
+
+			CompletableFuture<List<String>> batch = CompletableFuture.supplyAsync(() -> hasher.encodeAll(List.of("a", "b", "c")));
+			release.countDown();
+			List<String> hashes = batch.get(15, TimeUnit.SECONDS);
+			assertThat(hasher.matches("running", running.get(5, TimeUnit.SECONDS))).isTrue();
+			assertThat(hasher.matches("queued", queued.get(5, TimeUnit.SECONDS))).isTrue();
+			assertThat(hasher.matches("b", hashes.get(1))).isTrue();
+		} finally {
+			release.countDown();
+			hasher.shutdown();
+		}
+	}
+
+	@Test
+	void hashesBelowTheConfiguredStrengthNeedARehash() {
+		String weakHash = new BCryptPasswordEncoder(4).encode("secret12");
+		PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(5), 1, 10, new SimpleMeterRegistry());
+		try {
+			assertThat(hasher.matches("secret12", weakHash)).isTrue();
+			assertThat(hasher.needsRehash(weakHash)).isTrue();
+			assertThat(hasher.needsRehash(hasher.encode("secret12"))).isFalse();
+		} finally {
+			hasher.shutdown();
+		}
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.AddressResponseDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class PrimaryCityBackfillTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PrimaryCityBackfill primaryCityBackfill;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void legacyRowsGetTheCityOfTheirFirstAddress() {
+		Long legacy = userService.createUser(request("Legacy", "Oldtown", "Newtown")).getId();
+		Long homeless = userService.createUser(request("Homeless")).getId();
+		// As left by ddl-auto=update adding the column with its default
+		transactionTemplate.executeWithoutResult(status ->
+				jdbcTemplate.update("UPDATE app_user SET primary_city = '' WHERE id = ?", legacy));
+		assertThat(primaryCity(legacy)).isEmpty();
+
+		primaryCityBackfill.run(null);
+
+		assertThat(primaryCity(legacy)).isEqualTo("Oldtown");
+		assertThat(primaryCity(homeless)).isEmpty();
+		// Filled rows, and users without a city, are not written again on the next startup
+		assertThat(transactionTemplate.<Integer>execute(status -> userRepository.backfillPrimaryCities())).isZero();
+	}
+
+	@Test
+	void reorderedAddressesKeepTheCityTheBackfillWouldWrite() {
+		UserResponseDTO created = userService.createUser(request("Reordered", "Firstville", "Secondville"));
+		UserRequestDTO update = request("Reordered", "Newville");
+		List<AddressRequestDTO> addresses = new ArrayList<>(update.getAddresses());
+		for (AddressResponseDTO address : created.getAddresses().reversed()) {
+			addresses.add(new AddressRequestDTO(address.getId(), address.getStreet(), null, address.getCity(),
+					address.getState(), address.getZipCode(), address.getCountry(), new ArrayList<>()));
+		}
+		update.setAddresses(addresses);
+
+		UserResponseDTO updated = userService.updateUser(created.getId(), update);
+
+		// Addresses come back oldest first, whatever order they were sent in
+		assertThat(updated.getAddresses()).extracting(AddressResponseDTO::getCity)
+				.containsExactly("Firstville", "Secondville", "Newville");
+		assertThat(primaryCity(created.getId())).isEqualTo("Firstville");
+		transactionTemplate.executeWithoutResult(status ->
+				jdbcTemplate.update("UPDATE app_user SET primary_city = '' WHERE id = ?", created.getId()));
+		primaryCityBackfill.run(null);
+		assertThat(primaryCity(created.getId())).isEqualTo("Firstville");
+	}
+
+	private String primaryCity(Long id) {
+		return jdbcTemplate.queryForObject("SELECT primary_city FROM app_user WHERE id = ?", String.class, id);
+	}
+
+	private static UserRequestDTO request(String firstName, String... cities) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName(firstName);
+		request.setLastName("Backfill");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(firstName.toLowerCase() + ".backfill@example.com");
+		request.setPassword("secret12");
+		List<AddressRequestDTO> addresses = new ArrayList<>();
+		for (String city : cities) {
+			AddressRequestDTO address = new AddressRequestDTO();
+			address.setStreet("1 Backfill Road");
+			address.setCity(city);
+			address.setState("IL");
+			address.setZipCode("12345");
+			address.setCountry("USA");
+			addresses.add(address);
+		}
+		request.setAddresses(addresses);
+		return request;
+	}
+}
@@ -0,0 +1,97 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.BulkDeleteResultDTO;
+import com.gevernova.addressbook.dto.FacetBucketDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Own database: a second context on the shared one would recreate the schema under the other test contexts
+@SpringBootTest(properties = {
+		"addressbook.bulk-delete.chunk-size=2",
+		"spring.datasource.url=jdbc:h2:mem:bulkdelete"})
+@ActiveProfiles("dev")
+class UserBulkDeleteTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserBulkDeleteService userBulkDeleteService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private FacetCounter facetCounter;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void deletesByFilterAndByIdsInChunks() {
+		String since = userService.getChanges(null, 1).getSince();
+		List<Long> tagged = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			tagged.add(userService.createUser(request("Tagged" + i, address("Purgeville", "Bulkland", "bulk-acme"))).getId());
+		}
+		Long untagged = userService.createUser(request("Untagged", address("Purgeville", "Bulkland"))).getId();
+		Long other = userService.createUser(request("Other", address("Keepton", "Elsewhere"))).getId();
+
+		BulkDeleteResultDTO byTag = userBulkDeleteService.deleteUsers(null, " BULKLAND ", "bulk-acme");
+		assertThat(byTag.getDeleted()).isEqualTo(5);
+		assertThat(byTag.getChunks()).isEqualTo(3);
+		assertThat(userRepository.findAllById(tagged)).isEmpty();
+		assertThat(userRepository.existsById(untagged)).isTrue();
+		assertThat(userService.getChanges(since, 500).getDeleted()).containsAll(tagged);
+		assertThat(userService.getFacets("tag", null, 500)).extracting(FacetBucketDTO::getValue).doesNotContain("bulk-acme");
+
+		// Unknown and repeated ids are skipped
+		BulkDeleteResultDTO byIds = userBulkDeleteService.deleteUsers(List.of(untagged, other, untagged, -1L), null, null);
+		assertThat(byIds.getDeleted()).isEqualTo(2);
+		assertThat(userRepository.findAllById(List.of(untagged, other))).isEmpty();
+
+		// Counts, tags and tombstones were kept in step without loading the users
+		double repairsBefore = meterRegistry.counter("addressbook.facets.repairs").count();
+		facetCounter.reconcile();
+		assertThat(meterRegistry.counter("addressbook.facets.repairs").count()).isEqualTo(repairsBefore);
+
+		assertThatThrownBy(() -> userBulkDeleteService.deleteUsers(null, " ", null)).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> userBulkDeleteService.deleteUsers(List.of(other), "Bulkland", null))
+				.isInstanceOf(BadRequestException.class);
+	}
+
+	private static UserRequestDTO request(String firstName, AddressRequestDTO address) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName(firstName);
+		request.setLastName("Bulk");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(firstName.toLowerCase() + ".bulk@example.com");
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>(List.of(address)));
+		return request;
+	}
+
+	private static AddressRequestDTO address(String city, String state, String... tags) {
+		AddressRequestDTO address = new AddressRequestDTO();
+		address.setStreet("1 Bulk Road");
+		address.setCity(city);
+		address.setState(state);
+		address.setZipCode("12345");
+		address.setCountry("USA");
+		address.setTags(new ArrayList<>(List.of(tags)));
+		return address;
+	}
+}
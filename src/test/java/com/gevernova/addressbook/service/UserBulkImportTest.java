@@ -0,0 +1,119 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.BulkImportResultDTO;
+import com.gevernova.addressbook.dto.BulkRowErrorDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.gevernova.addressbook.metrics.SqlStatementAssertions.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Own database: a second context on the shared one would recreate the schema under the other test contexts.
+// The lowest BCrypt strength keeps the hashing out of the way.
+@SpringBootTest(properties = {
+		"addressbook.bulk-import.chunk-size=10",
+		"addressbook.password.bcrypt-strength=4",
+		"spring.datasource.url=jdbc:h2:mem:bulkimport"})
+@ActiveProfiles("dev")
+class UserBulkImportTest {
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void jsonArrayReportsBadRowsAndRetriesAFailedChunkRowByRow() throws IOException {
+		String body = "[" + user("ann.import@example.com", "Ann") + ","
+				+ user("blank.import@example.com", " ") + ","
+				+ "null,"
+				+ user("ANN.import@example.com", "Copy") + "," // Same email as row 1, in the same chunk
+				+ user("bob.import@example.com", "Bob") + "]";
+
+		BulkImportResultDTO result = importUsers(body, false);
+
+		assertThat(result.getReceived()).isEqualTo(5);
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getFailed()).isEqualTo(3);
+		assertThat(result.getErrors()).extracting(BulkRowErrorDTO::getRow).containsExactly(2L, 3L, 4L);
+		// The chunk was rolled back and retried: row 1 is in once, its duplicate not at all
+		assertThat(userService.getUserByEmail("ann.import@example.com")).map(UserResponseDTO::getFirstName).contains("Ann");
+		assertThat(userService.getUserByEmail("bob.import@example.com")).isPresent();
+		assertThat(userRepository.existsByEmailKey("blank.import@example.com")).isFalse();
+	}
+
+	@Test
+	void ndjsonRowsAreLineNumbers() throws IOException {
+		String body = user("cid.import@example.com", "Cid") + "\n"
+				+ "\n"
+				+ "null\n"
+				+ "{\"firstName\": \n"
+				+ user("dee.import@example.com", "Dee") + "\n";
+
+		BulkImportResultDTO result = importUsers(body, true);
+
+		assertThat(result.getReceived()).isEqualTo(4); // The blank line is skipped
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getErrors()).extracting(BulkRowErrorDTO::getRow).containsExactly(3L, 4L);
+		assertThat(userService.getUserByEmail("dee.import@example.com")).isPresent();
+	}
+
+	@Test
+	void importSendsFarFewerStatementsPerUserThanSingleCreates() throws IOException {
+		String body = IntStream.range(0, 20)
+				.mapToObj(i -> user("batch" + i + ".import@example.com", "Batch"))
+				.collect(Collectors.joining("\n"));
+		int imported = countStatements(() -> {
+			try {
+				assertThat(importUsers(body, true).getImported()).isEqualTo(20);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		int created = countStatements(() -> IntStream.range(0, 20)
+				.forEach(i -> userService.createUser(request("single" + i + ".import@example.com"))));
+
+		// Two chunks of batched inserts against several statements per created user
+		assertThat(imported).isLessThan(created / 4);
+	}
+
+	private BulkImportResultDTO importUsers(String body, boolean ndjson) throws IOException {
+		return userImportService.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ndjson);
+	}
+
+	private static String user(String email, String firstName) {
+		return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"Import\",\"phoneNumber\":\"5550000000\","
+				+ "\"email\":\"" + email + "\",\"password\":\"secret12\",\"addresses\":[{\"street\":\"1 Import Road\","
+				+ "\"city\":\"Batchton\",\"state\":\"IL\",\"zipCode\":\"12345\",\"country\":\"USA\",\"tags\":[\"import\"]}]}";
+	}
+
+	private static UserRequestDTO request(String email) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName("Single");
+		request.setLastName("Import");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(email);
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>(List.of(new AddressRequestDTO(null, "1 Import Road", null, "Batchton", "IL",
+				"12345", "USA", new ArrayList<>(List.of("import"))))));
+		return request;
+	}
+}
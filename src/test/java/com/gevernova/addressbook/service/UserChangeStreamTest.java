@@ -0,0 +1,124 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A context of its own (web server), on a database of its own: a second context on the shared database would
+// recreate the schema under the other contexts, and their relays would skip the events below their last one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:changestream")
+@ActiveProfiles("dev")
+class UserChangeStreamTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void resumingSubscriberGetsMissedAndLiveChanges() throws Exception {
+		String resumeFrom = newestEventId(); // Only this test's events are replayed
+		Long userId = userService.createUser(request()).getId(); // Before the subscriber connects
+
+		BlockingQueue<String> data = new LinkedBlockingQueue<>();
+		HttpRequest subscribe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/stream"))
+				.header("Last-Event-ID", resumeFrom)
+				.build();
+		// Threads of its own for the client and the reader: the common pool may be busy with the rest of the suite
+		ExecutorService streamThreads = Executors.newCachedThreadPool();
+		HttpClient client = HttpClient.newBuilder().executor(streamThreads).build();
+		CompletableFuture<HttpResponse<Stream<String>>> response = client.sendAsync(subscribe, HttpResponse.BodyHandlers.ofLines());
+		CompletableFuture<Void> reader = response.thenAcceptAsync(lines -> lines.body()
+				.filter(line -> line.startsWith("data:"))
+				.forEach(data::add), streamThreads);
+		try {
+			awaitEvent(data, "\"type\":\"CREATED\",\"userId\":" + userId + ",");
+			// The live event must find the subscriber registered with the relay's listener
+			awaitSubscribers(1);
+
+			UserPatchDTO patch = new UserPatchDTO();
+			patch.setPhoneNumber("5550000007");
+			userService.patchUser(userId, patch);
+			awaitEvent(data, "\"type\":\"UPDATED\",\"userId\":" + userId + ",");
+		} finally {
+			reader.cancel(true);
+			HttpResponse<Stream<String>> connected = response.getNow(null);
+			if (connected != null) {
+				connected.body().close();
+			}
+			client.shutdownNow();
+			streamThreads.shutdownNow();
+		}
+	}
+
+	private String newestEventId() {
+		return outboxEventRepository.findNewest(PageRequest.of(0, 1)).stream()
+				.map(event -> event.getChangeVersion() + "-" + event.getId())
+				.findFirst()
+				.orElse("0-0");
+	}
+
+	private void awaitSubscribers(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (meterRegistry.get("addressbook.stream.subscribers").gauge().value() < count) {
+			assertThat(System.nanoTime()).as("subscriber registered in time").isLessThan(deadline);
+			Thread.sleep(20);
+		}
+	}
+
+	private static void awaitEvent(BlockingQueue<String> data, String fragment) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		ArrayList<String> seen = new ArrayList<>();
+		while (System.nanoTime() < deadline) {
+			String line = data.poll(100, TimeUnit.MILLISECONDS);
+			if (line != null && line.contains(fragment)) {
+				return;
+			}
+			if (line != null) {
+				seen.add(line);
+			}
+		}
+		assertThat(seen).as("stream events").anyMatch(line -> line.contains(fragment));
+	}
+
+	private static UserRequestDTO request() {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName("Stream");
+		request.setLastName("Subscriber");
+		request.setPhoneNumber("5550000000");
+		request.setEmail("stream.subscriber@example.com");
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>());
+		return request;
+	}
+}
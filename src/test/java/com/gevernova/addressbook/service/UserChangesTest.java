@@ -0,0 +1,119 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserChangesDTO;
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class UserChangesTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void deltaListsOnlyWritesAndDeletionsSinceTheToken() {
+		Long patched = userService.createUser(request("Patched")).getId();
+		Long deleted = userService.createUser(request("Deleted")).getId();
+		String token = syncToEnd(null, new ArrayList<>(), new ArrayList<>());
+
+		Long created = userService.createUser(request("Created")).getId();
+		UserPatchDTO patch = new UserPatchDTO();
+		patch.setPhoneNumber("5550000009");
+		userService.patchUser(patched, patch);
+		userService.deleteUser(deleted);
+
+		List<UserResponseDTO> changed = new ArrayList<>();
+		List<Long> deletedIds = new ArrayList<>();
+		String next = syncToEnd(token, changed, deletedIds);
+
+		// In change order, over two pages of two
+		assertThat(changed).extracting(UserResponseDTO::getId).containsExactly(created, patched);
+		assertThat(changed.get(1).getPhoneNumber()).isEqualTo("5550000009");
+		assertThat(deletedIds).containsExactly(deleted);
+		// Nothing changed since: same token, nothing listed
+		UserChangesDTO unchanged = userService.getChanges(next, 2);
+		assertThat(unchanged.getChanged()).isEmpty();
+		assertThat(unchanged.getDeleted()).isEmpty();
+		assertThat(unchanged.getSince()).isEqualTo(next);
+	}
+
+	@Test
+	void writesOfOtherUsersDoNotWaitForAnOpenWrite() throws Exception {
+		Long slow = userService.createUser(request("Slow")).getId();
+		Long fast = userService.createUser(request("Fast")).getId();
+		UserPatchDTO patch = new UserPatchDTO();
+		patch.setPhoneNumber("5550000008");
+		CountDownLatch patched = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> slowWrite = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				userService.patchUser(slow, patch);
+				patched.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			assertThat(patched.await(10, TimeUnit.SECONDS)).isTrue();
+
+			// The open transaction holds no lock but its user's row: the other write commits meanwhile
+			executor.submit(() -> userService.patchUser(fast, patch)).get(10, TimeUnit.SECONDS);
+			release.countDown();
+			slowWrite.get(10, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+		// Versions follow the commit order, not the order the writes started in
+		assertThat(userRepository.findById(fast).orElseThrow().getChangeVersion())
+				.isLessThan(userRepository.findById(slow).orElseThrow().getChangeVersion());
+	}
+
+	private String syncToEnd(String since, List<UserResponseDTO> changed, List<Long> deleted) {
+		UserChangesDTO page;
+		do {
+			page = userService.getChanges(since, 2);
+			changed.addAll(page.getChanged());
+			deleted.addAll(page.getDeleted());
+			since = page.getSince();
+		} while (page.isHasMore());
+		return since;
+	}
+
+	private static UserRequestDTO request(String firstName) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName(firstName);
+		request.setLastName("Sync");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(firstName.toLowerCase() + ".sync@example.com");
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>());
+		return request;
+	}
+}
@@ -0,0 +1,83 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.cache.EmailBloomFilter;
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.exceptionhandler.DuplicateEmailException;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class UserEmailLookupTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EmailBloomFilter emailFilter;
+
+	@Test
+	void lookupIsCaseInsensitiveAndDuplicatesAreRejected() {
+		Long eve = userService.createUser(request("Eve", "Eve.Lookup@Example.com")).getId();
+		Long other = userService.createUser(request("Other", "other.lookup@example.com")).getId();
+
+		assertThat(userService.getUserByEmail(" eve.lookup@EXAMPLE.com ")).map(UserResponseDTO::getId).contains(eve);
+		assertThat(userService.getUserByEmail("nobody.lookup@example.com")).isEmpty();
+
+		assertThatThrownBy(() -> userService.createUser(request("Copy", "EVE.LOOKUP@example.com")))
+				.isInstanceOf(DuplicateEmailException.class);
+		UserPatchDTO patch = new UserPatchDTO();
+		patch.setEmail("eve.lookup@example.com");
+		assertThatThrownBy(() -> userService.patchUser(other, patch)).isInstanceOf(DuplicateEmailException.class);
+		patch.setEmail("Other.Renamed@example.com");
+		userService.patchUser(other, patch);
+		assertThat(userService.getUserByEmail("other.renamed@example.com")).map(UserResponseDTO::getId).contains(other);
+
+		// Past the up-front check (e.g. two concurrent sign-ups), the unique index still holds
+		User racing = new User();
+		racing.setFirstName("Racing");
+		racing.setLastName("Lookup");
+		racing.setPhoneNumber("5550000000");
+		racing.setEmail("eve.LOOKUP@example.com");
+		racing.setPassword("secret");
+		assertThatThrownBy(() -> userRepository.saveAndFlush(racing)).isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	@Test
+	void filterAnswersMostMissesAndNeverMissesAStoredEmail() {
+		userService.createUser(request("Filter", "filter.lookup@example.com"));
+		assertThat(emailFilter.mightContain("filter.lookup@example.com")).isTrue();
+
+		long answeredAbsent = IntStream.range(0, 1000)
+				.filter(i -> !emailFilter.mightContain("absent" + i + "@example.com"))
+				.count();
+		assertThat(answeredAbsent).isGreaterThan(950); // 1% false positives configured
+	}
+
+	private static UserRequestDTO request(String firstName, String email) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName(firstName);
+		request.setLastName("Lookup");
+		request.setPhoneNumber("5550000000");
+		request.setEmail(email);
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>());
+		return request;
+	}
+}
@@ -0,0 +1,57 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class UserPasswordUpdateTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordHasher passwordHasher;
+
+	@Test
+	void resentPasswordKeepsItsHashAndANewOneIsHashed() {
+		Long id = userService.createUser(request("secret12")).getId();
+		String created = storedHash(id);
+
+		userService.updateUser(id, request("secret12"));
+		assertThat(storedHash(id)).isEqualTo(created);
+
+		UserPatchDTO patch = new UserPatchDTO();
+		patch.setPassword("changed34");
+		userService.patchUser(id, patch);
+		assertThat(storedHash(id)).isNotEqualTo(created);
+		assertThat(passwordHasher.matches("changed34", storedHash(id))).isTrue();
+	}
+
+	private String storedHash(Long id) {
+		return userRepository.findPasswordById(id).orElseThrow();
+	}
+
+	private static UserRequestDTO request(String password) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName("Pat");
+		request.setLastName("Password");
+		request.setPhoneNumber("5550000000");
+		request.setEmail("pat.password@example.com");
+		request.setPassword(password);
+		request.setAddresses(new ArrayList<>());
+		return request;
+	}
+}
@@ -0,0 +1,97 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.AddressRequestDTO;
+import com.gevernova.addressbook.dto.AddressResponseDTO;
+import com.gevernova.addressbook.dto.UserPatchDTO;
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.gevernova.addressbook.metrics.SqlStatementAssertions.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// What a PATCH writes to the user's rows, read from the SQL the dev profile logs (spring.jpa.show-sql)
+@SpringBootTest
+@ActiveProfiles("dev")
+@ExtendWith(OutputCaptureExtension.class)
+class UserPatchStatementsTest {
+
+	private static final Pattern USER_ROW_WRITE =
+			Pattern.compile("Hibernate: (insert into|update|delete from) (app_user|address|address_tags) .*");
+
+	// Stamped by UserChangeTracker just before commit, after the flush, on every changed user
+	private static final String VERSION_STAMP = "update app_user set change_version=? where id=?";
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void phoneOnlyPatchUpdatesOneColumnAndLeavesAddressesAlone(CapturedOutput output) {
+		UserResponseDTO user = userService.createUser(request());
+		int from = output.getOut().length();
+
+		UserPatchDTO patch = new UserPatchDTO();
+		patch.setPhoneNumber("5550000042");
+		int statements = countStatements(() -> userService.patchUser(user.getId(), patch));
+
+		assertThat(writesSince(output, from)).containsExactly(
+				"update app_user set phone_number=? where id=?",
+				VERSION_STAMP);
+		// Lock, load, tags, the UPDATE, then the change version, outbox event and counter
+		assertThat(statements).isLessThanOrEqualTo(8);
+	}
+
+	@Test
+	void unchangedAddressesAndTagsAreNotRewritten(CapturedOutput output) {
+		UserResponseDTO user = userService.createUser(request());
+		int from = output.getOut().length();
+
+		UserPatchDTO same = new UserPatchDTO();
+		same.setAddresses(user.getAddresses().stream().map(UserPatchStatementsTest::resend).toList());
+		userService.patchUser(user.getId(), same);
+		assertThat(writesSince(output, from)).containsExactly(VERSION_STAMP);
+
+		// One changed field of one address: one UPDATE of that row, its tags stay
+		UserPatchDTO moved = new UserPatchDTO();
+		List<AddressRequestDTO> addresses = new ArrayList<>(same.getAddresses());
+		addresses.get(1).setZipCode("99999");
+		moved.setAddresses(addresses);
+		from = output.getOut().length();
+		userService.patchUser(user.getId(), moved);
+		assertThat(writesSince(output, from)).containsExactly(
+				"update address set zip_code=?,zip_key=? where id=?",
+				VERSION_STAMP);
+	}
+
+	private static List<String> writesSince(CapturedOutput output, int from) {
+		return output.getOut().substring(from).lines()
+				.filter(line -> USER_ROW_WRITE.matcher(line).matches())
+				.map(line -> line.substring("Hibernate: ".length()))
+				.toList();
+	}
+
+	private static AddressRequestDTO resend(AddressResponseDTO address) {
+		return new AddressRequestDTO(address.getId(), address.getStreet(), address.getAddressLineTwo(), address.getCity(),
+				address.getState(), address.getZipCode(), address.getCountry(), new ArrayList<>(address.getTags()));
+	}
+
+	private static UserRequestDTO request() {
+		List<AddressRequestDTO> addresses = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			addresses.add(new AddressRequestDTO(null, i + " Patch Street", null, "Patchville", "IL", "12345", "USA",
+					new ArrayList<>(List.of("patch", "tag" + i))));
+		}
+		return new UserRequestDTO("Pat", "Statements", "5550000000", "pat" + System.nanoTime() + ".statements@example.com",
+				"secret12", addresses);
+	}
+}
@@ -0,0 +1,92 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.UserRequestDTO;
+import com.gevernova.addressbook.dto.UserSearchHitDTO;
+import com.gevernova.addressbook.exceptionhandler.BadRequestException;
+import com.gevernova.addressbook.search.SearchIndexEndpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class UserSearchServiceTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserSearchService userSearchService;
+
+	@Autowired
+	private SearchIndexEndpoint searchIndexEndpoint;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void exactMatchOutranksAOneEditMatch() {
+		Long exact = userService.createUser(request("Brandywine")).getId();
+		Long oneEdit = userService.createUser(request("Brandywina")).getId();
+
+		assertThat(userSearchService.search("brandywine", 0, 20).getHits())
+				.extracting(UserSearchHitDTO::getId)
+				.containsExactly(exact, oneEdit);
+	}
+
+	@Test
+	void misspelledQueryMatchesWithinOneEdit() {
+		Long user = userService.createUser(request("Thistledown")).getId();
+
+		assertThat(userSearchService.search("thistledwn", 0, 20).getHits()).extracting(UserSearchHitDTO::getId)
+				.containsExactly(user);
+		assertThat(userSearchService.search("thistlodwn", 0, 20).getHits()).isEmpty(); // Two edits
+	}
+
+	@Test
+	void rebuildReindexesRowsTheIndexMissed() {
+		Long id = userService.createUser(request("Underhill")).getId();
+		// Written behind Hibernate's back, so the index still has the old name
+		transactionTemplate.executeWithoutResult(status ->
+				jdbcTemplate.update("UPDATE app_user SET last_name = 'Overhill' WHERE id = ?", id));
+		assertThat(userSearchService.search("overhill", 0, 20).getHits()).isEmpty();
+
+		long indexed = searchIndexEndpoint.rebuild().get("indexedUsers");
+
+		assertThat(indexed).isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_user", Long.class));
+		assertThat(userSearchService.search("overhill", 0, 20).getHits()).extracting(UserSearchHitDTO::getId)
+				.containsExactly(id);
+		assertThat(userSearchService.search("underhill", 0, 20).getHits()).isEmpty();
+	}
+
+	@Test
+	void pagesPastTheResultWindowAreRejected() {
+		assertThat(userSearchService.search("nobody", 100, 100).getHits()).isEmpty(); // Starts at hit 10,000
+		assertThatThrownBy(() -> userSearchService.search("nobody", 101, 100)).isInstanceOf(BadRequestException.class);
+		// page * size overflows an int: was a negative offset and a 500
+		assertThatThrownBy(() -> userSearchService.search("nobody", Integer.MAX_VALUE, 100))
+				.isInstanceOf(BadRequestException.class);
+	}
+
+	private static UserRequestDTO request(String lastName) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setFirstName("Searched");
+		request.setLastName(lastName);
+		request.setPhoneNumber("5550000000");
+		request.setEmail(lastName.toLowerCase() + ".search@example.com");
+		request.setPassword("secret12");
+		request.setAddresses(new ArrayList<>());
+		return request;
+	}
+}
@@ -0,0 +1,124 @@
+package com.gevernova.addressbook.service;
+
+import com.gevernova.addressbook.dto.CursorPage;
+import com.gevernova.addressbook.dto.UserBatchDTO;
+import com.gevernova.addressbook.dto.UserResponseDTO;
+import com.gevernova.addressbook.dto.UserSummaryDTO;
+import com.gevernova.addressbook.entity.Address;
+import com.gevernova.addressbook.entity.User;
+import com.gevernova.addressbook.metrics.RequestQueryStats;
+import com.gevernova.addressbook.pagination.UserSort;
+import com.gevernova.addressbook.repository.AddressSearchCriteria;
+import com.gevernova.addressbook.repository.MatchMode;
+import com.gevernova.addressbook.repository.UserFields;
+import com.gevernova.addressbook.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.gevernova.addressbook.metrics.SqlStatementAssertions.assertStatementsAtMost;
+import static com.gevernova.addressbook.metrics.SqlStatementAssertions.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class UserServiceQueryCountTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void addressSearchStatementCountDoesNotGrowWithResultSize() {
+		seedUsers("QA", 2);
+		seedUsers("QB", 40);
+
+		int smallSearch = countStatements(() -> {
+			CursorPage<UserResponseDTO> page = userService.findUsersByAddressState("QA", MatchMode.EXACT, UserSort.ID, null, 100);
+			assertThat(page.getItems()).hasSize(2);
+			assertThat(page.getItems()).allSatisfy(user -> assertThat(user.getAddresses()).hasSize(2));
+		});
+		int largeSearch = countStatements(() -> {
+			CursorPage<UserResponseDTO> page = userService.findUsersByAddressState("QB", MatchMode.EXACT, UserSort.ID, null, 100);
+			assertThat(page.getItems()).hasSize(40);
+			assertThat(page.getItems()).allSatisfy(user ->
+					assertThat(user.getAddresses()).allSatisfy(address -> assertThat(address.getTags()).hasSize(2)));
+		});
+
+		// Page query + addresses + tags, whatever the number of matching users
+		assertThat(smallSearch).isLessThanOrEqualTo(3);
+		assertThat(largeSearch).isEqualTo(smallSearch);
+	}
+
+	@Test
+	void getUserByIdStatementCountDoesNotGrowWithAddresses() {
+		Long userId = seedUsers("QC", 1).get(0);
+
+		// User with addresses + tags, not one tag query per address
+		assertStatementsAtMost(2, () -> assertThat(userService.getUserById(userId)).isPresent());
+	}
+
+	@Test
+	void getUsersByIdsStatementCountDoesNotGrowWithIds() {
+		List<Long> userIds = new ArrayList<>(seedUsers("QD", 30));
+		Collections.reverse(userIds); // Not the database order
+		userIds.add(1, -1L);
+
+		int statements = countStatements(() -> {
+			UserBatchDTO batch = userService.getUsersByIds(userIds);
+			assertThat(batch.getUsers()).extracting(UserResponseDTO::getId)
+					.containsExactlyElementsOf(userIds.stream().filter(id -> id > 0).toList());
+			assertThat(batch.getMissingIds()).containsExactly(-1L);
+		});
+		// Users with addresses + tags, whatever the number of ids
+		assertThat(statements).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void summaryPageIsOneStatementWithoutEntities() {
+		seedUsers("QE", 20);
+
+		int statements = countStatements(() -> {
+			CursorPage<UserSummaryDTO> page = userService.findUserSummaries(
+					AddressSearchCriteria.state("QE", MatchMode.EXACT), UserFields.fromParams("summary", null), UserSort.LAST_NAME, null, 10);
+			assertThat(page.getItems()).hasSize(10);
+			assertThat(page.getItems()).allSatisfy(user -> assertThat(user.getFullName()).startsWith("First"));
+			assertThat(page.getNext()).isNotNull();
+		});
+		assertThat(statements).isEqualTo(1);
+		assertThat(RequestQueryStats.entityLoads()).isZero();
+	}
+
+	private List<Long> seedUsers(String state, int count) {
+		List<Long> userIds = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			User user = new User();
+			user.setFirstName("First" + i);
+			user.setLastName(state + i);
+			user.setPhoneNumber("5550000000");
+			user.setEmail(state.toLowerCase() + i + "@example.com");
+			user.setPassword("secret");
+			for (int j = 0; j < 2; j++) {
+				Address address = new Address();
+				address.setStreet(j + " Main St");
+				address.setCity("City" + j);
+				address.setState(state);
+				address.setZipCode("00000");
+				address.setCountry("USA");
+				address.setTags(new ArrayList<>(List.of("home", "tag" + j)));
+				address.setUser(user);
+				user.getAddresses().add(address);
+			}
+			user.syncPrimaryCity();
+			userIds.add(userRepository.save(user).getId());
+		}
+		return userIds;
+	}
+}